@@ -0,0 +1,243 @@
+package no.skatteetaten.fastsetting.formueinntekt.felles.documentsql.api;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.function.Function;
+
+import javax.sql.DataSource;
+
+public class AsyncJdbcDispatcher<T, S> implements AutoCloseable {
+
+    private final JdbcDispatcher<S> delegate;
+
+    private final DataSource dataSource;
+
+    private final Function<? super T, ? extends S> serializer;
+
+    private final Executor serializers, writers;
+
+    private final int batchSize, limit;
+
+    private final Semaphore capacity;
+
+    private volatile boolean closed;
+
+    private final Object lock = new Object();
+
+    private Batch<S> batch = new Batch<>();
+
+    private int writing;
+
+    public AsyncJdbcDispatcher(
+        JdbcDispatcher<S> delegate,
+        DataSource dataSource,
+        Function<? super T, ? extends S> serializer,
+        int batchSize,
+        int capacity
+    ) {
+        this(delegate, dataSource, serializer, ForkJoinPool.commonPool(), ThreadSupport.executor(), batchSize, capacity);
+    }
+
+    public AsyncJdbcDispatcher(
+        JdbcDispatcher<S> delegate,
+        DataSource dataSource,
+        Function<? super T, ? extends S> serializer,
+        Executor serializers,
+        Executor writers,
+        int batchSize,
+        int capacity
+    ) {
+        if (batchSize < 1) {
+            throw new IllegalArgumentException("Batch size must be positive: " + batchSize);
+        } else if (capacity < batchSize) {
+            throw new IllegalArgumentException("Capacity must at least be the batch size: " + capacity);
+        }
+        this.delegate = delegate;
+        this.dataSource = dataSource;
+        this.serializer = serializer;
+        this.serializers = serializers;
+        this.writers = writers;
+        this.batchSize = batchSize;
+        limit = capacity;
+        this.capacity = new Semaphore(capacity);
+    }
+
+    public CompletableFuture<Void> insert(String id, T payload) {
+        return insert(new RevisionedId(id, 1, false), payload);
+    }
+
+    public CompletableFuture<Void> insert(String id, int revision, T payload) {
+        return insert(new RevisionedId(id, revision, false), payload);
+    }
+
+    public CompletableFuture<Void> insert(String id, int revision, boolean deleted, T payload) {
+        return insert(new RevisionedId(id, revision, deleted), payload);
+    }
+
+    public CompletableFuture<Void> insert(RevisionedId id, T payload) {
+        try {
+            capacity.acquire();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while awaiting capacity for " + id, e);
+        }
+        return submit(id, payload);
+    }
+
+    public Optional<CompletableFuture<Void>> tryInsert(RevisionedId id, T payload) {
+        return capacity.tryAcquire() ? Optional.of(submit(id, payload)) : Optional.empty();
+    }
+
+    public void flush() {
+        try {
+            capacity.acquire(limit);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while awaiting pending documents", e);
+        }
+        capacity.release(limit);
+    }
+
+    @Override
+    public void close() {
+        closed = true;
+        flush();
+    }
+
+    private CompletableFuture<Void> submit(RevisionedId id, T payload) {
+        if (closed) {
+            capacity.release();
+            throw new IllegalStateException("Dispatcher is closed");
+        }
+        CompletableFuture<Void> future = new CompletableFuture<>();
+        try {
+            serializers.execute(() -> {
+                S serialized;
+                try {
+                    serialized = serializer.apply(payload);
+                } catch (Throwable t) {
+                    capacity.release();
+                    future.completeExceptionally(t);
+                    return;
+                }
+                assemble(id, serialized, future);
+            });
+        } catch (RejectedExecutionException e) {
+            capacity.release();
+            future.completeExceptionally(e);
+        }
+        return future;
+    }
+
+    private void assemble(RevisionedId id, S payload, CompletableFuture<Void> future) {
+        List<Batch<S>> completed = new ArrayList<>(2);
+        synchronized (lock) {
+            if (batch.ids.contains(id.getId())) {
+                completed.add(batch);
+                batch = new Batch<>();
+            }
+            batch.ids.add(id.getId());
+            batch.payloads.put(id, payload);
+            batch.futures.put(id, future);
+            if (batch.payloads.size() >= batchSize || writing + completed.size() == 0) {
+                completed.add(batch);
+                batch = new Batch<>();
+            }
+            writing += completed.size();
+        }
+        dispatch(completed);
+    }
+
+    private void dispatch(List<Batch<S>> completed) {
+        for (Batch<S> batch : completed) {
+            try {
+                writers.execute(() -> write(batch));
+            } catch (RejectedExecutionException e) {
+                capacity.release(batch.payloads.size());
+                batch.futures.values().forEach(value -> value.completeExceptionally(e));
+                release();
+            }
+        }
+    }
+
+    private void release() {
+        List<Batch<S>> completed;
+        synchronized (lock) {
+            writing--;
+            if (writing > 0 || batch.payloads.isEmpty()) {
+                return;
+            }
+            completed = Collections.singletonList(batch);
+            batch = new Batch<>();
+            writing++;
+        }
+        dispatch(completed);
+    }
+
+    private void write(Batch<S> batch) {
+        Set<RevisionedId> written = new HashSet<>();
+        Map<RevisionedId, Throwable> failures = new HashMap<>();
+        try (Connection conn = dataSource.getConnection()) {
+            boolean autoCommit = conn.getAutoCommit();
+            conn.setAutoCommit(false);
+            try {
+                try {
+                    delegate.insert(conn, batch.payloads);
+                    conn.commit();
+                    written.addAll(batch.payloads.keySet());
+                } catch (SQLException | RuntimeException e) {
+                    conn.rollback();
+                    if (batch.payloads.size() == 1) {
+                        throw e;
+                    }
+                    for (Map.Entry<RevisionedId, S> entry : batch.payloads.entrySet()) {
+                        try {
+                            delegate.insert(conn, Collections.singletonMap(entry.getKey(), entry.getValue()));
+                            conn.commit();
+                            written.add(entry.getKey());
+                        } catch (SQLException | RuntimeException exception) {
+                            conn.rollback();
+                            failures.put(entry.getKey(), exception);
+                        }
+                    }
+                }
+            } finally {
+                conn.setAutoCommit(autoCommit);
+            }
+        } catch (Throwable t) {
+            batch.payloads.keySet().stream().filter(id -> !written.contains(id)).forEach(id -> failures.putIfAbsent(id, t));
+        }
+        capacity.release(batch.payloads.size());
+        batch.futures.forEach((id, future) -> {
+            if (written.contains(id)) {
+                future.complete(null);
+            } else {
+                future.completeExceptionally(failures.get(id));
+            }
+        });
+        release();
+    }
+
+    private static class Batch<S> {
+
+        private final Set<String> ids = new HashSet<>();
+
+        private final Map<RevisionedId, S> payloads = new LinkedHashMap<>();
+
+        private final Map<RevisionedId, CompletableFuture<Void>> futures = new HashMap<>();
+    }
+}
@@ -0,0 +1,40 @@
+package no.skatteetaten.fastsetting.formueinntekt.felles.documentsql.api;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.stream.Collectors;
+
+public class CachingViewResolver implements ViewResolver {
+
+    private final ViewResolver delegate;
+
+    private final ClassValue<ConcurrentMap<List<List<PathElement>>, Map<List<List<PathElement>>, Map<List<PathElement>, Class<?>>>>> cache = new ClassValue<>() {
+        @Override
+        protected ConcurrentMap<List<List<PathElement>>, Map<List<List<PathElement>>, Map<List<PathElement>, Class<?>>>> computeValue(Class<?> type) {
+            return new ConcurrentHashMap<>();
+        }
+    };
+
+    public CachingViewResolver(ViewResolver delegate) {
+        this.delegate = delegate;
+    }
+
+    @Override
+    public Map<List<List<PathElement>>, Map<List<PathElement>, Class<?>>> resolve(Class<?> type, List<List<PathElement>> roots) {
+        return cache.get(type).computeIfAbsent(
+            roots.stream().map(List::copyOf).collect(Collectors.toUnmodifiableList()),
+            key -> {
+                Map<List<List<PathElement>>, Map<List<PathElement>, Class<?>>> views = new LinkedHashMap<>();
+                delegate.resolve(type, key).forEach((paths, properties) -> views.put(
+                    paths,
+                    Collections.unmodifiableMap(new LinkedHashMap<>(properties))
+                ));
+                return Collections.unmodifiableMap(views);
+            }
+        );
+    }
+}
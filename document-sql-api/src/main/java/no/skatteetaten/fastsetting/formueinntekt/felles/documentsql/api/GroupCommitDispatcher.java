@@ -0,0 +1,275 @@
+package no.skatteetaten.fastsetting.formueinntekt.felles.documentsql.api;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.function.LongConsumer;
+import java.util.function.Predicate;
+
+import javax.sql.DataSource;
+
+public class GroupCommitDispatcher<T> implements JdbcDispatcher<T> {
+
+    private final JdbcDispatcher<T> delegate;
+
+    private final ScheduledExecutorService executor;
+
+    private final int batchSize;
+
+    private final Duration delay;
+
+    private final Map<DataSource, Batch<T>> batches = new HashMap<>();
+
+    public GroupCommitDispatcher(JdbcDispatcher<T> delegate, ScheduledExecutorService executor, int batchSize, Duration delay) {
+        if (batchSize < 1) {
+            throw new IllegalArgumentException("Batch size must be positive: " + batchSize);
+        } else if (delay.isNegative()) {
+            throw new IllegalArgumentException("Delay must not be negative: " + delay);
+        }
+        this.delegate = delegate;
+        this.executor = executor;
+        this.batchSize = batchSize;
+        this.delay = delay;
+    }
+
+    public CompletableFuture<Void> submit(DataSource dataSource, RevisionedId id, T payload) {
+        CompletableFuture<Void> future = new CompletableFuture<>();
+        List<Batch<T>> completed = new ArrayList<>(2);
+        synchronized (batches) {
+            Batch<T> batch = batches.get(dataSource);
+            if (batch != null && batch.payloads.containsKey(id)) {
+                batches.remove(dataSource);
+                batch.timer.cancel(false);
+                completed.add(batch);
+                batch = null;
+            }
+            if (batch == null) {
+                try {
+                    batch = open(dataSource);
+                } catch (RejectedExecutionException e) {
+                    future.completeExceptionally(e);
+                }
+            }
+            if (batch != null) {
+                batch.payloads.put(id, payload);
+                batch.futures.put(id, future);
+                if (batch.payloads.size() >= batchSize) {
+                    batches.remove(dataSource);
+                    batch.timer.cancel(false);
+                    completed.add(batch);
+                }
+            }
+        }
+        completed.forEach(this::dispatch);
+        return future;
+    }
+
+    private Batch<T> open(DataSource dataSource) {
+        Batch<T> batch = new Batch<>(dataSource);
+        batch.timer = executor.schedule(() -> {
+            boolean expired;
+            synchronized (batches) {
+                expired = batches.remove(dataSource, batch);
+            }
+            if (expired) {
+                write(batch);
+            }
+        }, delay.toNanos(), TimeUnit.NANOSECONDS);
+        batches.put(dataSource, batch);
+        return batch;
+    }
+
+    private void dispatch(Batch<T> batch) {
+        try {
+            executor.execute(() -> write(batch));
+        } catch (RejectedExecutionException e) {
+            batch.futures.values().forEach(future -> future.completeExceptionally(e));
+        }
+    }
+
+    public void flush() {
+        List<Batch<T>> completed;
+        synchronized (batches) {
+            completed = new ArrayList<>(batches.values());
+            batches.clear();
+        }
+        completed.forEach(batch -> {
+            batch.timer.cancel(false);
+            write(batch);
+        });
+    }
+
+    private void write(Batch<T> batch) {
+        try (Connection conn = batch.dataSource.getConnection()) {
+            boolean autoCommit = conn.getAutoCommit();
+            conn.setAutoCommit(false);
+            try {
+                try {
+                    delegate.insert(conn, batch.payloads);
+                    conn.commit();
+                    batch.futures.values().forEach(future -> future.complete(null));
+                } catch (SQLException | RuntimeException e) {
+                    conn.rollback();
+                    if (batch.payloads.size() == 1) {
+                        throw e;
+                    }
+                    for (Map.Entry<RevisionedId, T> entry : batch.payloads.entrySet()) {
+                        try {
+                            delegate.insert(conn, Collections.singletonMap(entry.getKey(), entry.getValue()));
+                            conn.commit();
+                            batch.futures.get(entry.getKey()).complete(null);
+                        } catch (SQLException | RuntimeException exception) {
+                            conn.rollback();
+                            batch.futures.get(entry.getKey()).completeExceptionally(exception);
+                        }
+                    }
+                }
+            } finally {
+                conn.setAutoCommit(autoCommit);
+            }
+        } catch (Throwable t) {
+            batch.futures.values().forEach(future -> future.completeExceptionally(t));
+        }
+    }
+
+    @Override
+    public void insert(DataSource dataSource, String id, T payload) throws SQLException {
+        insert(dataSource, new RevisionedId(id, 1, false), payload);
+    }
+
+    @Override
+    public void insert(DataSource dataSource, String id, int revision, T payload) throws SQLException {
+        insert(dataSource, new RevisionedId(id, revision, false), payload);
+    }
+
+    @Override
+    public void insert(DataSource dataSource, String id, int revision, boolean deleted, T payload) throws SQLException {
+        insert(dataSource, new RevisionedId(id, revision, deleted), payload);
+    }
+
+    @Override
+    public void insert(DataSource dataSource, RevisionedId id, T payload) throws SQLException {
+        try {
+            submit(dataSource, id, payload).get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while awaiting insertion of " + id, e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof SQLException) {
+                throw (SQLException) e.getCause();
+            } else if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            } else if (e.getCause() instanceof Error) {
+                throw (Error) e.getCause();
+            } else {
+                throw new IllegalStateException("Failed insertion of " + id, e.getCause());
+            }
+        }
+    }
+
+    @Override
+    public void insert(Connection conn, Map<RevisionedId, T> payloads) throws SQLException {
+        delegate.insert(conn, payloads);
+    }
+
+    @Override
+    public void insertAll(Connection conn, Iterator<Map.Entry<RevisionedId, T>> payloads, int batchSize) throws SQLException {
+        delegate.insertAll(conn, payloads, batchSize);
+    }
+
+    @Override
+    public void load(Connection conn, Iterator<Map.Entry<RevisionedId, T>> payloads) throws SQLException {
+        delegate.load(conn, payloads);
+    }
+
+    @Override
+    public Map<RevisionedId, Boolean> insertIfAbsent(Connection conn, Map<RevisionedId, T> payloads) throws SQLException {
+        return delegate.insertIfAbsent(conn, payloads);
+    }
+
+    @Override
+    public List<RevisionedId> append(Connection conn, Map<String, T> payloads, boolean deleted) throws SQLException {
+        return delegate.append(conn, payloads, deleted);
+    }
+
+    @Override
+    public void printTo(Consumer<List<String>> consumer) {
+        delegate.printTo(consumer);
+    }
+
+    @Override
+    public void create(DataSource dataSource, Collection<String> users, Consumer<String> callback) throws SQLException {
+        delegate.create(dataSource, users, callback);
+    }
+
+    @Override
+    public void drop(DataSource dataSource, Consumer<String> callback, Predicate<SQLException> check) throws SQLException {
+        delegate.drop(dataSource, callback, check);
+    }
+
+    @Override
+    public void truncate(DataSource dataSource) throws SQLException {
+        delegate.truncate(dataSource);
+    }
+
+    @Override
+    public void refresh(DataSource dataSource) throws SQLException {
+        delegate.refresh(dataSource);
+    }
+
+    @Override
+    public Optional<Duration> getStaleness(DataSource dataSource) throws SQLException {
+        return delegate.getStaleness(dataSource);
+    }
+
+    @Override
+    public long retain(DataSource dataSource, int revisions, int chunk, LongConsumer progress) throws SQLException {
+        return delegate.retain(dataSource, revisions, chunk, progress);
+    }
+
+    @Override
+    public void addPartition(DataSource dataSource, String partition, String from, String to) throws SQLException {
+        delegate.addPartition(dataSource, partition, from, to);
+    }
+
+    @Override
+    public void dropPartition(DataSource dataSource, String partition) throws SQLException {
+        delegate.dropPartition(dataSource, partition);
+    }
+
+    @Override
+    public void detachPartition(DataSource dataSource, String partition) throws SQLException {
+        delegate.detachPartition(dataSource, partition);
+    }
+
+    private static class Batch<T> {
+
+        private final DataSource dataSource;
+
+        private final Map<RevisionedId, T> payloads = new LinkedHashMap<>();
+
+        private final Map<RevisionedId, CompletableFuture<Void>> futures = new HashMap<>();
+
+        private ScheduledFuture<?> timer;
+
+        private Batch(DataSource dataSource) {
+            this.dataSource = dataSource;
+        }
+    }
+}
@@ -7,6 +7,7 @@ import java.lang.invoke.MethodType;
 import java.lang.reflect.Field;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
 import java.util.Optional;
 
@@ -17,6 +18,20 @@ public class JaxbHandler {
     private final Class<? extends Annotation> xmlType, xmlSchema, xmlElement, xmlElementWrapper, xmlTransient, xmlSeeAlso;
     private final MethodHandle xmlTypeNamespace, xmlSchemaNamespace, xmlElementName, xmlElementNamespace, xmlElementWrapperName, xmlElementWrapperNamespace, xmlSeeAlsoValue;
 
+    private final ClassValue<Optional<String>> namespaces = new ClassValue<>() {
+        @Override
+        protected Optional<String> computeValue(Class<?> type) {
+            return resolveNamespace(type);
+        }
+    };
+
+    private final ClassValue<List<Field>> fields = new ClassValue<>() {
+        @Override
+        protected List<Field> computeValue(Class<?> type) {
+            return resolveFields(type);
+        }
+    };
+
     @SuppressWarnings("unchecked")
     private JaxbHandler(ClassLoader classLoader, String namespace) {
         try {
@@ -63,17 +78,27 @@ public class JaxbHandler {
     }
 
     Optional<String> toNamespace(Class<?> property) {
+        return namespaces.get(property);
+    }
+
+    private Optional<String> resolveNamespace(Class<?> property) {
         try {
             Annotation type = property.getAnnotation(xmlType);
-            if (type != null && !xmlTypeNamespace.invoke(type).equals(DEFAULT)) {
-                return Optional.of((String) xmlTypeNamespace.invoke(type)).filter(namespace -> !namespace.isEmpty());
-            } else if (property.getPackage() == null) {
+            if (type != null) {
+                String namespace = (String) xmlTypeNamespace.invoke(type);
+                if (!namespace.equals(DEFAULT)) {
+                    return Optional.of(namespace).filter(value -> !value.isEmpty());
+                }
+            }
+            if (property.getPackage() == null) {
                 return Optional.empty();
             }
             Annotation schema = property.getPackage().getAnnotation(xmlSchema);
-            return schema == null || ((String) xmlSchemaNamespace.invoke(schema)).isEmpty()
-                ? Optional.empty()
-                : Optional.of((String) xmlSchemaNamespace.invoke(schema));
+            if (schema == null) {
+                return Optional.empty();
+            }
+            String namespace = (String) xmlSchemaNamespace.invoke(schema);
+            return namespace.isEmpty() ? Optional.empty() : Optional.of(namespace);
         } catch (Throwable t) {
             throw new IllegalStateException(t);
         }
@@ -82,13 +107,10 @@ public class JaxbHandler {
     Optional<PathElement> toElement(Field field) {
         return Optional.ofNullable(field.getAnnotation(xmlElement)).map(element -> {
             try {
+                String name = (String) xmlElementName.invoke(element), namespace = (String) xmlElementNamespace.invoke(element);
                 return new PathElement(
-                    xmlElementName.invoke(element).equals(DEFAULT)
-                        ? field.getName()
-                        : (String) xmlElementName.invoke(element),
-                    xmlElementNamespace.invoke(element).equals(DEFAULT) || ((String) xmlElementNamespace.invoke(element)).isEmpty()
-                        ? toNamespace(field.getDeclaringClass()).orElse(null)
-                        : (String) xmlElementNamespace.invoke(element)
+                    name.equals(DEFAULT) ? field.getName() : name,
+                    namespace.equals(DEFAULT) || namespace.isEmpty() ? toNamespace(field.getDeclaringClass()).orElse(null) : namespace
                 );
             } catch (Throwable t) {
                 throw new IllegalStateException(t);
@@ -99,13 +121,10 @@ public class JaxbHandler {
     Optional<PathElement> toWrapper(Field field, PathElement pathElement) {
         return Optional.ofNullable(field.getAnnotation(xmlElementWrapper)).map(elementWrapper -> {
             try {
+                String name = (String) xmlElementWrapperName.invoke(elementWrapper), namespace = (String) xmlElementWrapperNamespace.invoke(elementWrapper);
                 return new PathElement(
-                    xmlElementWrapperName.invoke(elementWrapper).equals(DEFAULT)
-                        ? field.getName()
-                        : (String) xmlElementWrapperName.invoke(elementWrapper),
-                    xmlElementWrapperNamespace.invoke(elementWrapper).equals(DEFAULT) || ((String) xmlElementWrapperNamespace.invoke(elementWrapper)).isEmpty()
-                        ? toNamespace(field.getDeclaringClass()).orElse(null)
-                        : (String) xmlElementWrapperNamespace.invoke(elementWrapper),
+                    name.equals(DEFAULT) ? field.getName() : name,
+                    namespace.equals(DEFAULT) || namespace.isEmpty() ? toNamespace(field.getDeclaringClass()).orElse(null) : namespace,
                     false
                 );
             } catch (Throwable t) {
@@ -115,6 +134,10 @@ public class JaxbHandler {
     }
 
     List<Field> toFields(Class<?> type) {
+        return fields.get(type);
+    }
+
+    private List<Field> resolveFields(Class<?> type) {
         List<Field> fields = new ArrayList<>(Arrays.asList(type.getDeclaredFields()));
         Annotation seeAlso = type.getAnnotation(xmlSeeAlso);
         if (seeAlso != null) {
@@ -128,6 +151,6 @@ public class JaxbHandler {
                 fields.addAll(toFields(specialization));
             }
         }
-        return fields;
+        return Collections.unmodifiableList(fields);
     }
 }
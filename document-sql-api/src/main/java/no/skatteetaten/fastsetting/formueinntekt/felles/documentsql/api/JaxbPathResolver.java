@@ -2,6 +2,7 @@ package no.skatteetaten.fastsetting.formueinntekt.felles.documentsql.api;
 
 import java.lang.reflect.Field;
 import java.lang.reflect.Modifier;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.LinkedHashMap;
@@ -13,13 +14,24 @@ public class JaxbPathResolver implements Function<Class<?>, Map<PathElement, Pat
 
     private final JaxbHandler handler;
 
+    private final ClassValue<Map<PathElement, PathContext>> resolved = new ClassValue<>() {
+        @Override
+        protected Map<PathElement, PathContext> computeValue(Class<?> type) {
+            return resolve(type);
+        }
+    };
+
     public JaxbPathResolver(JaxbHandler handler) {
         this.handler = handler;
     }
 
     @Override
     public Map<PathElement, PathContext> apply(Class<?> type) {
-        List<Field> fields = handler.toFields(type);
+        return resolved.get(type);
+    }
+
+    private Map<PathElement, PathContext> resolve(Class<?> type) {
+        List<Field> fields = new ArrayList<>(handler.toFields(type));
         Class<?> superClass = type.getSuperclass();
         while (superClass != null && handler.isXmlType(superClass)) {
             fields.addAll(Arrays.asList(superClass.getDeclaredFields()));
@@ -34,10 +46,11 @@ public class JaxbPathResolver implements Function<Class<?>, Map<PathElement, Pat
                 field.getName(),
                 handler.toNamespace(field.getDeclaringClass()).orElse(null)
             ));
-            elements.put(pathElement, PathContext.of(field, () -> handler.toWrapper(field, pathElement)
+            List<PathElement> wrappers = handler.toWrapper(field, pathElement)
                 .map(Collections::singletonList)
-                .orElseGet(Collections::emptyList)));
+                .orElseGet(Collections::emptyList);
+            elements.put(pathElement, PathContext.of(field, () -> wrappers));
         }
-        return elements;
+        return Collections.unmodifiableMap(elements);
     }
 }
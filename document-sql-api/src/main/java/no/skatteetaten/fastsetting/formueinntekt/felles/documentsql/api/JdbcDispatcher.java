@@ -3,13 +3,22 @@ package no.skatteetaten.fastsetting.formueinntekt.felles.documentsql.api;
 import java.math.BigInteger;
 import java.sql.Connection;
 import java.sql.SQLException;
+import java.sql.SQLIntegrityConstraintViolationException;
+import java.sql.Savepoint;
+import java.time.Duration;
 import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
 import java.util.function.Consumer;
+import java.util.function.LongConsumer;
 import java.util.function.Predicate;
+import java.util.stream.Stream;
 
 import javax.sql.DataSource;
 
@@ -97,8 +106,135 @@ public interface JdbcDispatcher<T> {
         }
     }
 
+    default boolean insertIfAbsent(Connection conn, RevisionedId id, T payload) throws SQLException {
+        return insertIfAbsent(conn, Collections.singletonMap(id, payload)).get(id);
+    }
+
+    default Map<RevisionedId, Boolean> insertIfAbsent(Connection conn, Map<RevisionedId, T> payloads) throws SQLException {
+        Map<RevisionedId, Boolean> inserted = new LinkedHashMap<>();
+        for (Map.Entry<RevisionedId, T> entry : payloads.entrySet()) {
+            Savepoint savepoint = conn.getAutoCommit() ? null : conn.setSavepoint();
+            try {
+                insert(conn, Collections.singletonMap(entry.getKey(), entry.getValue()));
+                inserted.put(entry.getKey(), true);
+            } catch (SQLException e) {
+                if (!(e instanceof SQLIntegrityConstraintViolationException) && !Objects.equals(e.getSQLState(), "23505")) {
+                    throw e;
+                }
+                if (savepoint != null) {
+                    conn.rollback(savepoint);
+                }
+                inserted.put(entry.getKey(), false);
+            }
+        }
+        return inserted;
+    }
+
+    default boolean insertIfAbsent(DataSource dataSource, RevisionedId id, T payload) throws SQLException {
+        try (Connection conn = dataSource.getConnection()) {
+            return insertIfAbsent(conn, id, payload);
+        }
+    }
+
+    default Map<RevisionedId, Boolean> insertIfAbsent(DataSource dataSource, Map<RevisionedId, T> payloads) throws SQLException {
+        try (Connection conn = dataSource.getConnection()) {
+            return insertIfAbsent(conn, payloads);
+        }
+    }
+
+    default RevisionedId append(Connection conn, String id, T payload) throws SQLException {
+        return append(conn, id, false, payload);
+    }
+
+    default RevisionedId append(Connection conn, String id, boolean deleted, T payload) throws SQLException {
+        return append(conn, Collections.singletonMap(id, payload), deleted).get(0);
+    }
+
+    default List<RevisionedId> append(Connection conn, Map<String, T> payloads) throws SQLException {
+        return append(conn, payloads, false);
+    }
+
+    default List<RevisionedId> append(Connection conn, Map<String, T> payloads, boolean deleted) throws SQLException {
+        throw new UnsupportedOperationException("Revision allocation is not supported by " + getClass().getTypeName());
+    }
+
+    default RevisionedId append(DataSource dataSource, String id, T payload) throws SQLException {
+        try (Connection conn = dataSource.getConnection()) {
+            return append(conn, id, payload);
+        }
+    }
+
+    default List<RevisionedId> append(DataSource dataSource, Map<String, T> payloads) throws SQLException {
+        try (Connection conn = dataSource.getConnection()) {
+            return append(conn, payloads);
+        }
+    }
+
+    default void insertAll(Connection conn, Stream<Map.Entry<RevisionedId, T>> payloads, int batchSize) throws SQLException {
+        insertAll(conn, payloads.iterator(), batchSize);
+    }
+
+    default void insertAll(Connection conn, Iterator<Map.Entry<RevisionedId, T>> payloads, int batchSize) throws SQLException {
+        if (batchSize < 1) {
+            throw new IllegalArgumentException("Batch size must be positive: " + batchSize);
+        }
+        Map<RevisionedId, T> batch = new LinkedHashMap<>();
+        while (payloads.hasNext()) {
+            Map.Entry<RevisionedId, T> payload = payloads.next();
+            if (batch.containsKey(payload.getKey())) {
+                throw new IllegalArgumentException("Duplicate document: " + payload.getKey());
+            }
+            batch.put(payload.getKey(), payload.getValue());
+            if (batch.size() == batchSize) {
+                insert(conn, batch);
+                batch.clear();
+            }
+        }
+        insert(conn, batch);
+    }
+
+    default void load(Connection conn, Stream<Map.Entry<RevisionedId, T>> payloads) throws SQLException {
+        load(conn, payloads.iterator());
+    }
+
+    default void load(Connection conn, Iterator<Map.Entry<RevisionedId, T>> payloads) throws SQLException {
+        insertAll(conn, payloads, 1000);
+    }
+
+    default void load(DataSource dataSource, Stream<Map.Entry<RevisionedId, T>> payloads) throws SQLException {
+        try (Connection conn = dataSource.getConnection()) {
+            load(conn, payloads);
+        }
+    }
+
     void truncate(DataSource dataSource) throws SQLException;
 
+    default void refresh(DataSource dataSource) throws SQLException { }
+
+    default Optional<Duration> getStaleness(DataSource dataSource) throws SQLException {
+        return Optional.empty();
+    }
+
+    default long retain(DataSource dataSource, int revisions) throws SQLException {
+        return retain(dataSource, revisions, 1000, deleted -> { });
+    }
+
+    default long retain(DataSource dataSource, int revisions, int chunk, LongConsumer progress) throws SQLException {
+        throw new UnsupportedOperationException("Retention is not supported by " + getClass().getTypeName());
+    }
+
+    default void addPartition(DataSource dataSource, String partition, String from, String to) throws SQLException {
+        throw new UnsupportedOperationException("Partitioning is not supported by " + getClass().getTypeName());
+    }
+
+    default void dropPartition(DataSource dataSource, String partition) throws SQLException {
+        throw new UnsupportedOperationException("Partitioning is not supported by " + getClass().getTypeName());
+    }
+
+    default void detachPartition(DataSource dataSource, String partition) throws SQLException {
+        throw new UnsupportedOperationException("Partitioning is not supported by " + getClass().getTypeName());
+    }
+
     class Builder<T> {
 
         private final JdbcDispatcherFactory factory;
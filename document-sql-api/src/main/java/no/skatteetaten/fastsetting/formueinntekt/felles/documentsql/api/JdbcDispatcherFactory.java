@@ -9,7 +9,7 @@ import java.util.function.Function;
 
 public interface JdbcDispatcherFactory {
 
-    String ID = "ID", REVISION = "REVISION", DELETED = "DELETED", PAYLOAD = "PAYLOAD";
+    String ID = "ID", REVISION = "REVISION", DELETED = "DELETED", PAYLOAD = "PAYLOAD", ORDINAL = "ORDINAL";
 
     default JdbcDispatcher<String> create(String name, Map<List<List<PathElement>>, Map<List<PathElement>, Class<?>>> views) {
         return create(name, views, new CapitalizingNameResolver(), SimpleTableResolver.ofString());
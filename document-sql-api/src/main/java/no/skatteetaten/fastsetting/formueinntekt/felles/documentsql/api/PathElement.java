@@ -42,16 +42,6 @@ public class PathElement {
         return manifest;
     }
 
-    static List<PathElement> merge(
-        List<PathElement> key,
-        PathElement... elements
-    ) {
-        return Stream.concat(
-            key.stream(),
-            Stream.of(elements)
-        ).collect(Collectors.toList());
-    }
-
     @SafeVarargs
     static List<List<PathElement>> merge(
         List<List<PathElement>> prefix,
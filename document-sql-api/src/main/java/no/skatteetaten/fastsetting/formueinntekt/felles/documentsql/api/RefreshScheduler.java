@@ -0,0 +1,97 @@
+package no.skatteetaten.fastsetting.formueinntekt.felles.documentsql.api;
+
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
+
+import javax.sql.DataSource;
+
+public class RefreshScheduler implements Runnable {
+
+    private final DataSource dataSource;
+
+    private final List<JdbcDispatcher<?>> dispatchers;
+
+    private final Duration staleness;
+
+    private final Consumer<SQLException> onError;
+
+    private final AtomicReference<Duration> observed = new AtomicReference<>(Duration.ZERO);
+
+    private final AtomicLong refreshes = new AtomicLong(), failures = new AtomicLong();
+
+    private final AtomicReference<SQLException> failure = new AtomicReference<>();
+
+    public RefreshScheduler(DataSource dataSource, Duration staleness, JdbcDispatcher<?>... dispatchers) {
+        this(dataSource, staleness, Arrays.asList(dispatchers), exception -> { });
+    }
+
+    public RefreshScheduler(
+        DataSource dataSource,
+        Duration staleness,
+        Collection<? extends JdbcDispatcher<?>> dispatchers,
+        Consumer<SQLException> onError
+    ) {
+        if (staleness.isNegative()) {
+            throw new IllegalArgumentException("Staleness bound must not be negative: " + staleness);
+        }
+        this.dataSource = dataSource;
+        this.staleness = staleness;
+        this.dispatchers = List.copyOf(dispatchers);
+        this.onError = onError;
+    }
+
+    public ScheduledFuture<?> schedule(ScheduledExecutorService executor, Duration interval) {
+        return executor.scheduleWithFixedDelay(this, interval.toMillis(), interval.toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public void run() {
+        Duration maximum = Duration.ZERO;
+        for (JdbcDispatcher<?> dispatcher : dispatchers) {
+            Duration current = Duration.ZERO;
+            try {
+                current = dispatcher.getStaleness(dataSource).orElse(Duration.ZERO);
+                if (!current.isZero() && current.compareTo(staleness) >= 0) {
+                    dispatcher.refresh(dataSource);
+                    refreshes.incrementAndGet();
+                    current = Duration.ZERO;
+                }
+            } catch (SQLException e) {
+                failures.incrementAndGet();
+                failure.set(e);
+                onError.accept(e);
+            } finally {
+                if (current.compareTo(maximum) > 0) {
+                    maximum = current;
+                }
+            }
+        }
+        observed.set(maximum);
+    }
+
+    public Duration getStaleness() {
+        return observed.get();
+    }
+
+    public long getRefreshes() {
+        return refreshes.get();
+    }
+
+    public long getFailures() {
+        return failures.get();
+    }
+
+    public Optional<SQLException> getLastFailure() {
+        return Optional.ofNullable(failure.get());
+    }
+}
@@ -0,0 +1,74 @@
+package no.skatteetaten.fastsetting.formueinntekt.felles.documentsql.api;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.function.LongConsumer;
+
+import javax.sql.DataSource;
+
+public class RetentionSupport {
+
+    private RetentionSupport() {
+        throw new UnsupportedOperationException();
+    }
+
+    public static long retain(
+        DataSource dataSource,
+        String first,
+        String next,
+        String delete,
+        int revisions,
+        int chunk,
+        LongConsumer progress
+    ) throws SQLException {
+        if (revisions < 1) {
+            throw new IllegalArgumentException("At least one revision must be retained: " + revisions);
+        } else if (chunk < 1) {
+            throw new IllegalArgumentException("Chunk size must be positive: " + chunk);
+        }
+        long deleted = 0;
+        try (Connection conn = dataSource.getConnection()) {
+            boolean autoCommit = conn.getAutoCommit();
+            conn.setAutoCommit(false);
+            try (
+                Statement stmt = conn.createStatement();
+                PreparedStatement bounds = conn.prepareStatement(next);
+                PreparedStatement superseded = conn.prepareStatement(delete)
+            ) {
+                String lower;
+                try (ResultSet rs = stmt.executeQuery(first)) {
+                    lower = rs.next() ? rs.getString(1) : null;
+                }
+                while (lower != null) {
+                    bounds.setString(1, lower);
+                    bounds.setInt(2, chunk + 1);
+                    int count;
+                    String upper;
+                    try (ResultSet rs = bounds.executeQuery()) {
+                        if (!rs.next()) {
+                            break;
+                        }
+                        count = rs.getInt(1);
+                        upper = rs.getString(2);
+                    }
+                    superseded.setString(1, lower);
+                    superseded.setString(2, upper);
+                    superseded.setInt(3, revisions - 1);
+                    deleted += superseded.executeUpdate();
+                    conn.commit();
+                    progress.accept(deleted);
+                    lower = count > chunk ? upper : null;
+                }
+            } catch (SQLException e) {
+                conn.rollback();
+                throw e;
+            } finally {
+                conn.setAutoCommit(autoCommit);
+            }
+        }
+        return deleted;
+    }
+}
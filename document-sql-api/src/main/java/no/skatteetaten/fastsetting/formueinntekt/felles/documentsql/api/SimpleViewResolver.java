@@ -12,17 +12,23 @@ import java.time.OffsetTime;
 import java.time.Year;
 import java.time.YearMonth;
 import java.time.ZonedDateTime;
+import java.util.AbstractList;
 import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.Date;
 import java.util.Deque;
 import java.util.LinkedHashMap;
-import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveAction;
 import java.util.function.BiPredicate;
+import java.util.function.Consumer;
 import java.util.function.Function;
 import java.util.function.Predicate;
 import java.util.stream.Collectors;
@@ -70,6 +76,7 @@ public class SimpleViewResolver implements ViewResolver {
     private final Function<Class<?>, Map<PathElement, PathContext>> resolver;
     private final Predicate<Class<?>> isTerminal;
     private final BiPredicate<List<List<PathElement>>, Class<?>> filter;
+    private final ForkJoinPool pool;
 
     public SimpleViewResolver() {
         resolver = new SimplePathResolver();
@@ -77,6 +84,7 @@ public class SimpleViewResolver implements ViewResolver {
             || type.getName().equals(JAXB_XML_CALENDAR)
             || type.getName().equals(JAKARTA_XML_CALENDAR);
         filter = (elements, type) -> type != Object.class;
+        pool = null;
     }
 
     public SimpleViewResolver(Function<Class<?>, Map<PathElement, PathContext>> resolver) {
@@ -85,6 +93,7 @@ public class SimpleViewResolver implements ViewResolver {
             || type.getName().equals(JAXB_XML_CALENDAR)
             || type.getName().equals(JAKARTA_XML_CALENDAR);
         filter = (elements, type) -> type != Object.class;
+        pool = null;
     }
 
     public SimpleViewResolver(BiPredicate<List<String>, Class<?>> filter) {
@@ -96,6 +105,7 @@ public class SimpleViewResolver implements ViewResolver {
             PathElement.dense(elements.stream().flatMap(Collection::stream).collect(Collectors.toList())),
             type
         );
+        pool = null;
     }
 
     public SimpleViewResolver(Function<Class<?>, Map<PathElement, PathContext>> resolver, BiPredicate<List<String>, Class<?>> filter) {
@@ -107,6 +117,7 @@ public class SimpleViewResolver implements ViewResolver {
             PathElement.dense(elements.stream().flatMap(Collection::stream).collect(Collectors.toList())),
             type
         );
+        pool = null;
     }
 
     public SimpleViewResolver(
@@ -117,6 +128,23 @@ public class SimpleViewResolver implements ViewResolver {
         this.resolver = resolver;
         this.isTerminal = isTerminal;
         this.filter = filter;
+        pool = null;
+    }
+
+    private SimpleViewResolver(
+        Function<Class<?>, Map<PathElement, PathContext>> resolver,
+        Predicate<Class<?>> isTerminal,
+        BiPredicate<List<List<PathElement>>, Class<?>> filter,
+        ForkJoinPool pool
+    ) {
+        this.resolver = resolver;
+        this.isTerminal = isTerminal;
+        this.filter = filter;
+        this.pool = pool;
+    }
+
+    public SimpleViewResolver withParallelism(ForkJoinPool pool) {
+        return new SimpleViewResolver(resolver, isTerminal, filter, pool);
     }
 
     @Override
@@ -125,65 +153,114 @@ public class SimpleViewResolver implements ViewResolver {
             return Collections.emptyMap();
         }
         Map<List<List<PathElement>>, Map<List<PathElement>, Class<?>>> views = new LinkedHashMap<>();
-        Deque<Map.Entry<List<List<PathElement>>, ChainedValue<Class<?>>>> work = new ArrayDeque<>();
-        work.add(Map.entry(roots, new ChainedValue<>(type, type)));
-        do {
-            Map.Entry<List<List<PathElement>>, ChainedValue<Class<?>>> current = work.removeFirst();
-            if (current.getValue().getValue().isEnum() || isTerminal.test(current.getValue().getValue())) {
-                views.put(current.getKey(), Collections.singletonMap(Collections.emptyList(), current.getValue().getValue()));
-                continue;
-            }
-            Map<List<PathElement>, Class<?>> properties = new LinkedHashMap<>();
-            Deque<Map.Entry<List<PathElement>, ChainedValue<PathContext>>> unresolved = new ArrayDeque<>();
-            resolver.apply(current.getValue().getValue()).forEach((element, context) -> unresolved.addLast(Map.entry(
-                Collections.singletonList(element),
-                new ChainedValue<>(context)
-            )));
-            while (!unresolved.isEmpty()) {
-                Map.Entry<List<PathElement>, ChainedValue<PathContext>> entry = unresolved.removeFirst();
-                entry.getValue().getValue().accept(property -> {
-                    if (filter.test(PathElement.merge(current.getKey(), entry.getKey()), property)) {
-                        if (property.isEnum() || isTerminal.test(property)) {
-                            properties.put(entry.getKey(), property);
-                        } else {
-                            resolver.apply(property).forEach((element, context) -> unresolved.addLast(Map.entry(
-                                PathElement.merge(entry.getKey(), element),
-                                entry.getValue().chain(context, property)
-                            )));
-                        }
-                    }
-                }, (property, wrappers) -> {
-                    List<List<PathElement>> paths = PathElement.merge(current.getKey(), wrappers, entry.getKey());
-                    if (filter.test(paths, property)) {
-                        work.addLast(Map.entry(paths, current.getValue().chain(property, property)));
-                    }
-                });
-            }
-            if (!properties.isEmpty()) {
-                views.put(current.getKey(), properties);
-            }
-        } while (!work.isEmpty());
+        if (pool == null) {
+            Deque<Map.Entry<List<List<PathElement>>, ChainedValue<Class<?>>>> work = new ArrayDeque<>();
+            work.add(Map.entry(roots, new ChainedValue<>(type, type)));
+            do {
+                Map.Entry<List<List<PathElement>>, ChainedValue<Class<?>>> current = work.removeFirst();
+                Map<List<PathElement>, Class<?>> properties = resolve(current.getKey(), current.getValue(), work::addLast);
+                if (!properties.isEmpty()) {
+                    views.put(current.getKey(), properties);
+                }
+            } while (!work.isEmpty());
+        } else {
+            ViewTask root = new ViewTask(roots, new ChainedValue<>(type, type));
+            pool.invoke(root);
+            Deque<ViewTask> work = new ArrayDeque<>();
+            work.add(root);
+            do {
+                ViewTask current = work.removeFirst();
+                if (!current.properties.isEmpty()) {
+                    views.put(current.paths, current.properties);
+                }
+                work.addAll(current.branches);
+            } while (!work.isEmpty());
+        }
         return views;
     }
 
+    private Map<List<PathElement>, Class<?>> resolve(
+        List<List<PathElement>> paths,
+        ChainedValue<Class<?>> current,
+        Consumer<Map.Entry<List<List<PathElement>>, ChainedValue<Class<?>>>> onBranch
+    ) {
+        if (current.getValue().isEnum() || isTerminal.test(current.getValue())) {
+            return Collections.singletonMap(Collections.emptyList(), current.getValue());
+        }
+        Map<List<PathElement>, Class<?>> properties = new LinkedHashMap<>();
+        Deque<Map.Entry<PathNode, ChainedValue<PathContext>>> unresolved = new ArrayDeque<>();
+        resolver.apply(current.getValue()).forEach((element, context) -> unresolved.addLast(Map.entry(
+            new PathNode(element),
+            new ChainedValue<>(context)
+        )));
+        while (!unresolved.isEmpty()) {
+            Map.Entry<PathNode, ChainedValue<PathContext>> entry = unresolved.removeFirst();
+            entry.getValue().getValue().accept(property -> {
+                if (filter.test(entry.getKey().prefixedBy(paths), property)) {
+                    if (property.isEnum() || isTerminal.test(property)) {
+                        properties.put(entry.getKey().toList(), property);
+                    } else {
+                        resolver.apply(property).forEach((element, context) -> unresolved.addLast(Map.entry(
+                            entry.getKey().append(element),
+                            entry.getValue().chain(context, property)
+                        )));
+                    }
+                }
+            }, (property, wrappers) -> {
+                List<List<PathElement>> branch = PathElement.merge(paths, wrappers, entry.getKey().toList());
+                if (filter.test(branch, property)) {
+                    onBranch.accept(Map.entry(branch, current.chain(property, property)));
+                }
+            });
+        }
+        return properties;
+    }
+
+    private class ViewTask extends RecursiveAction {
+
+        private final List<List<PathElement>> paths;
+        private final ChainedValue<Class<?>> current;
+
+        private Map<List<PathElement>, Class<?>> properties;
+        private List<ViewTask> branches;
+
+        private ViewTask(List<List<PathElement>> paths, ChainedValue<Class<?>> current) {
+            this.paths = paths;
+            this.current = current;
+        }
+
+        @Override
+        protected void compute() {
+            List<ViewTask> branches = new ArrayList<>();
+            properties = resolve(paths, current, branch -> branches.add(new ViewTask(branch.getKey(), branch.getValue())));
+            this.branches = branches;
+            ForkJoinTask.invokeAll(branches);
+        }
+    }
+
     static class ChainedValue<T> {
 
         private final T value;
 
-        private final Set<Class<?>> previous;
+        private final Class<?> type;
+
+        private final ChainedValue<?> previous;
 
         ChainedValue(T value) {
             this.value = value;
-            previous = Collections.emptySet();
+            type = null;
+            previous = null;
         }
 
         ChainedValue(T value, Class<?> type) {
             this.value = value;
-            previous = Collections.singleton(type);
+            this.type = type;
+            previous = null;
         }
 
-        private ChainedValue(T value, Set<Class<?>> previous) {
+        private ChainedValue(T value, Class<?> type, ChainedValue<?> previous) {
             this.value = value;
+            this.type = type;
             this.previous = previous;
         }
 
@@ -192,16 +269,67 @@ public class SimpleViewResolver implements ViewResolver {
         }
 
         ChainedValue<T> chain(T value, Class<?> type) {
-            Set<Class<?>> previous = new LinkedHashSet<>(this.previous);
-            if (previous.add(type)) {
-                return new ChainedValue<>(value, previous);
-            } else {
-                throw new IllegalArgumentException(previous.stream().map(Class::getTypeName).collect(Collectors.joining(
-                    " -> ",
-                    "Cannot resolve chain with recursive occurrence of " + type + " via ",
-                    ""
-                )));
+            for (ChainedValue<?> current = this; current != null; current = current.previous) {
+                if (current.type == type) {
+                    Deque<String> types = new ArrayDeque<>();
+                    for (ChainedValue<?> chained = this; chained != null; chained = chained.previous) {
+                        if (chained.type != null) {
+                            types.addFirst(chained.type.getTypeName());
+                        }
+                    }
+                    throw new IllegalArgumentException(
+                        "Cannot resolve chain with recursive occurrence of " + type + " via " + String.join(" -> ", types)
+                    );
+                }
             }
+            return new ChainedValue<>(value, type, this);
+        }
+    }
+
+    static class PathNode {
+
+        private final PathElement element;
+
+        private final PathNode parent;
+
+        private final int size;
+
+        PathNode(PathElement element) {
+            this.element = element;
+            parent = null;
+            size = 1;
+        }
+
+        private PathNode(PathElement element, PathNode parent) {
+            this.element = element;
+            this.parent = parent;
+            size = parent.size + 1;
+        }
+
+        PathNode append(PathElement element) {
+            return new PathNode(element, this);
+        }
+
+        List<PathElement> toList() {
+            PathElement[] elements = new PathElement[size];
+            for (PathNode node = this; node != null; node = node.parent) {
+                elements[node.size - 1] = node.element;
+            }
+            return Arrays.asList(elements);
+        }
+
+        List<List<PathElement>> prefixedBy(List<List<PathElement>> paths) {
+            return new AbstractList<>() {
+                @Override
+                public List<PathElement> get(int index) {
+                    return index == paths.size() ? toList() : paths.get(index);
+                }
+
+                @Override
+                public int size() {
+                    return paths.size() + 1;
+                }
+            };
         }
     }
 }
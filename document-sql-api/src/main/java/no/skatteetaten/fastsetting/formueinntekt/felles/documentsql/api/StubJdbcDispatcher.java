@@ -4,12 +4,15 @@ import java.sql.Connection;
 import java.sql.SQLException;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 import java.util.function.Consumer;
 import java.util.function.Function;
+import java.util.function.LongConsumer;
 import java.util.function.Predicate;
+import java.util.stream.Collectors;
 
 import javax.sql.DataSource;
 
@@ -49,9 +52,35 @@ public class StubJdbcDispatcher<T> implements JdbcDispatcher<T>, JdbcDispatcherF
     @Override
     public void insert(Connection conn, Map<RevisionedId, T> payloads) { }
 
+    @Override
+    public Map<RevisionedId, Boolean> insertIfAbsent(Connection conn, Map<RevisionedId, T> payloads) {
+        Map<RevisionedId, Boolean> inserted = new LinkedHashMap<>();
+        payloads.keySet().forEach(id -> inserted.put(id, true));
+        return inserted;
+    }
+
+    @Override
+    public List<RevisionedId> append(Connection conn, Map<String, T> payloads, boolean deleted) {
+        return payloads.keySet().stream().map(id -> new RevisionedId(id, 1, deleted)).collect(Collectors.toList());
+    }
+
     @Override
     public void truncate(DataSource dataSource) { }
 
+    @Override
+    public long retain(DataSource dataSource, int revisions, int chunk, LongConsumer progress) {
+        return 0;
+    }
+
+    @Override
+    public void addPartition(DataSource dataSource, String partition, String from, String to) { }
+
+    @Override
+    public void dropPartition(DataSource dataSource, String partition) { }
+
+    @Override
+    public void detachPartition(DataSource dataSource, String partition) { }
+
     @Override
     public <T> JdbcDispatcher<T> create(
         String name,
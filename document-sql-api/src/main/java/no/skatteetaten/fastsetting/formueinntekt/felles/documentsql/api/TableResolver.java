@@ -1,5 +1,7 @@
 package no.skatteetaten.fastsetting.formueinntekt.felles.documentsql.api;
 
+import java.io.IOException;
+import java.io.Writer;
 import java.sql.PreparedStatement;
 import java.sql.SQLException;
 import java.util.ArrayDeque;
@@ -11,6 +13,17 @@ public interface TableResolver<T> {
 
     String toPayload(T value);
 
+    default boolean isStreaming() {
+        return false;
+    }
+
+    default void writePayload(T value, Writer writer) throws IOException {
+        String payload = toPayload(value);
+        if (payload != null) {
+            writer.write(payload);
+        }
+    }
+
     void registerAdditionalValues(int index, PreparedStatement ps, T value) throws SQLException;
 
     Map<String, String> getAdditionalColumns();
@@ -0,0 +1,39 @@
+package no.skatteetaten.fastsetting.formueinntekt.felles.documentsql.api;
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+
+public class ThreadSupport {
+
+    private static final ExecutorService EXECUTOR = Executors.newCachedThreadPool(daemon());
+
+    private ThreadSupport() {
+        throw new UnsupportedOperationException();
+    }
+
+    public static boolean isVirtual() {
+        return false;
+    }
+
+    public static Executor executor() {
+        return EXECUTOR;
+    }
+
+    public static ExecutorService newExecutor(int threads) {
+        if (threads < 1) {
+            throw new IllegalArgumentException("Threads must be positive: " + threads);
+        }
+        return Executors.newFixedThreadPool(threads);
+    }
+
+    private static ThreadFactory daemon() {
+        ThreadFactory factory = Executors.defaultThreadFactory();
+        return runnable -> {
+            Thread thread = factory.newThread(runnable);
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+}
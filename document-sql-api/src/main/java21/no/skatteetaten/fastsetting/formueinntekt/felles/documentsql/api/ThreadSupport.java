@@ -0,0 +1,29 @@
+package no.skatteetaten.fastsetting.formueinntekt.felles.documentsql.api;
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+public class ThreadSupport {
+
+    private static final ExecutorService EXECUTOR = Executors.newVirtualThreadPerTaskExecutor();
+
+    private ThreadSupport() {
+        throw new UnsupportedOperationException();
+    }
+
+    public static boolean isVirtual() {
+        return true;
+    }
+
+    public static Executor executor() {
+        return EXECUTOR;
+    }
+
+    public static ExecutorService newExecutor(int threads) {
+        if (threads < 1) {
+            throw new IllegalArgumentException("Threads must be positive: " + threads);
+        }
+        return Executors.newFixedThreadPool(threads, Thread.ofVirtual().factory());
+    }
+}
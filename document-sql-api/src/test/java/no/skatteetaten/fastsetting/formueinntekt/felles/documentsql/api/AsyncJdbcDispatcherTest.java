@@ -0,0 +1,216 @@
+package no.skatteetaten.fastsetting.formueinntekt.felles.documentsql.api;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import javax.sql.DataSource;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+public class AsyncJdbcDispatcherTest {
+
+    private ExecutorService serializers, writers;
+
+    private RecordingDataSource recording;
+
+    private DataSource dataSource;
+
+    private RecordingDispatcher delegate;
+
+    @Before
+    public void setUp() {
+        serializers = Executors.newFixedThreadPool(2);
+        writers = Executors.newFixedThreadPool(2);
+        recording = new RecordingDataSource();
+        dataSource = recording.dataSource;
+        delegate = new RecordingDispatcher();
+    }
+
+    @After
+    public void tearDown() {
+        serializers.shutdownNow();
+        writers.shutdownNow();
+    }
+
+    @Test
+    public void batches_documents_while_writer_is_busy() throws Exception {
+        Queue<Runnable> pending = new ConcurrentLinkedQueue<>();
+        AsyncJdbcDispatcher<String, String> dispatcher = new AsyncJdbcDispatcher<>(
+            delegate, dataSource, String::trim, Runnable::run, pending::add, 3, 10
+        );
+        List<CompletableFuture<Void>> futures = new ArrayList<>();
+        for (int index = 0; index < 6; index++) {
+            futures.add(dispatcher.insert("id" + index, " payload "));
+        }
+        Runnable write;
+        while ((write = pending.poll()) != null) {
+            write.run();
+        }
+        CompletableFuture.allOf(futures.toArray(CompletableFuture[]::new)).get();
+        assertThat(delegate.batches).containsExactly(List.of("id0"), List.of("id1", "id2", "id3"), List.of("id4", "id5"));
+        assertThat(recording.commits).hasValue(3);
+    }
+
+    @Test
+    public void batches_documents_with_slow_writer() throws Exception {
+        RecordingDispatcher delegate = new RecordingDispatcher() {
+            @Override
+            public void insert(Connection conn, Map<RevisionedId, String> payloads) throws SQLException {
+                try {
+                    Thread.sleep(20);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new SQLException(e);
+                }
+                super.insert(conn, payloads);
+            }
+        };
+        AsyncJdbcDispatcher<String, String> dispatcher = new AsyncJdbcDispatcher<>(
+            delegate, dataSource, String::trim, serializers, writers, 10, 20
+        );
+        List<CompletableFuture<Void>> futures = new ArrayList<>();
+        for (int index = 0; index < 100; index++) {
+            futures.add(dispatcher.insert("id" + index, " payload "));
+        }
+        CompletableFuture.allOf(futures.toArray(CompletableFuture[]::new)).get();
+        assertThat(delegate.batches.stream().mapToInt(List::size).sum()).isEqualTo(100);
+        assertThat(delegate.batches).allSatisfy(batch -> assertThat(batch).hasSizeLessThanOrEqualTo(10));
+        assertThat(delegate.batches).hasSizeLessThanOrEqualTo(25);
+    }
+
+    @Test
+    public void writes_all_documents_concurrently() throws Exception {
+        AsyncJdbcDispatcher<String, String> dispatcher = new AsyncJdbcDispatcher<>(
+            delegate, dataSource, String::trim, serializers, writers, 10, 20
+        );
+        List<CompletableFuture<Void>> futures = new ArrayList<>();
+        for (int index = 0; index < 100; index++) {
+            futures.add(dispatcher.insert("id" + index, " payload "));
+        }
+        CompletableFuture.allOf(futures.toArray(CompletableFuture[]::new)).get();
+        assertThat(delegate.batches.stream().mapToInt(List::size).sum()).isEqualTo(100);
+        assertThat(delegate.batches).allSatisfy(batch -> assertThat(batch).hasSizeLessThanOrEqualTo(10));
+    }
+
+    @Test
+    public void isolates_failed_serialization() throws Exception {
+        AsyncJdbcDispatcher<String, String> dispatcher = new AsyncJdbcDispatcher<>(
+            delegate, dataSource, payload -> {
+                if (payload.isEmpty()) {
+                    throw new IllegalArgumentException("Empty payload");
+                }
+                return payload;
+            }, Runnable::run, writers, 10, 10
+        );
+        CompletableFuture<Void> first = dispatcher.insert("id1", "payload");
+        CompletableFuture<Void> failed = dispatcher.insert("id2", "");
+        first.get();
+        assertThatThrownBy(failed::get).isInstanceOf(ExecutionException.class).hasCauseInstanceOf(IllegalArgumentException.class);
+        assertThat(delegate.batches).containsExactly(List.of("id1"));
+    }
+
+    @Test
+    public void rejects_documents_beyond_capacity() throws Exception {
+        CountDownLatch latch = new CountDownLatch(1);
+        AsyncJdbcDispatcher<String, String> dispatcher = new AsyncJdbcDispatcher<>(
+            delegate, dataSource, String::trim, Runnable::run, command -> writers.execute(() -> {
+                try {
+                    latch.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                command.run();
+            }), 1, 2
+        );
+        Optional<CompletableFuture<Void>> first = dispatcher.tryInsert(new RevisionedId("id1", 1, false), "payload");
+        Optional<CompletableFuture<Void>> second = dispatcher.tryInsert(new RevisionedId("id2", 1, false), "payload");
+        Optional<CompletableFuture<Void>> third = dispatcher.tryInsert(new RevisionedId("id3", 1, false), "payload");
+        assertThat(first).isPresent();
+        assertThat(second).isPresent();
+        assertThat(third).isEmpty();
+        latch.countDown();
+        first.get().get();
+        second.get().get();
+        assertThat(dispatcher.tryInsert(new RevisionedId("id3", 1, false), "payload")).isPresent();
+    }
+
+    @Test
+    public void propagates_failed_write() {
+        AsyncJdbcDispatcher<String, String> dispatcher = new AsyncJdbcDispatcher<>(
+            delegate, dataSource, String::trim, Runnable::run, writers, 1, 1
+        );
+        CompletableFuture<Void> failed = dispatcher.insert("id", RecordingDispatcher.INVALID);
+        assertThatThrownBy(failed::get).isInstanceOf(ExecutionException.class).hasCauseInstanceOf(SQLException.class);
+        assertThat(recording.rollbacks).hasValue(1);
+    }
+
+    @Test
+    public void isolates_failed_documents() throws Exception {
+        Queue<Runnable> pending = new ConcurrentLinkedQueue<>();
+        AsyncJdbcDispatcher<String, String> dispatcher = new AsyncJdbcDispatcher<>(
+            delegate, dataSource, String::trim, Runnable::run, pending::add, 3, 10
+        );
+        CompletableFuture<Void> first = dispatcher.insert("id0", "payload");
+        CompletableFuture<Void> second = dispatcher.insert("id1", "payload");
+        CompletableFuture<Void> failed = dispatcher.insert("id2", RecordingDispatcher.INVALID);
+        CompletableFuture<Void> third = dispatcher.insert("id3", "payload");
+        Runnable write;
+        while ((write = pending.poll()) != null) {
+            write.run();
+        }
+        first.get();
+        second.get();
+        third.get();
+        assertThatThrownBy(failed::get).isInstanceOf(ExecutionException.class).hasCauseInstanceOf(SQLException.class);
+        assertThat(delegate.batches).containsExactly(List.of("id0"), List.of("id1"), List.of("id3"));
+        assertThat(recording.rollbacks).hasValue(2);
+    }
+
+    @Test
+    public void separates_revisions_of_document() throws Exception {
+        Queue<Runnable> pending = new ConcurrentLinkedQueue<>();
+        AsyncJdbcDispatcher<String, String> dispatcher = new AsyncJdbcDispatcher<>(
+            delegate, dataSource, String::trim, Runnable::run, pending::add, 10, 10
+        );
+        List<CompletableFuture<Void>> futures = new ArrayList<>();
+        futures.add(dispatcher.insert("id0", "payload"));
+        futures.add(dispatcher.insert("id1", 1, "payload"));
+        futures.add(dispatcher.insert("id1", 2, "payload"));
+        Runnable write;
+        while ((write = pending.poll()) != null) {
+            write.run();
+        }
+        CompletableFuture.allOf(futures.toArray(CompletableFuture[]::new)).get();
+        assertThat(delegate.batches).containsExactly(List.of("id0"), List.of("id1"), List.of("id1"));
+    }
+
+    @Test
+    public void flushes_and_rejects_documents_after_close() {
+        AsyncJdbcDispatcher<String, String> dispatcher = new AsyncJdbcDispatcher<>(
+            delegate, dataSource, String::trim, serializers, writers, 10, 20
+        );
+        for (int index = 0; index < 100; index++) {
+            dispatcher.insert("id" + index, " payload ");
+        }
+        dispatcher.close();
+        assertThat(delegate.batches.stream().mapToInt(List::size).sum()).isEqualTo(100);
+        assertThatThrownBy(() -> dispatcher.insert("id", "payload")).isInstanceOf(IllegalStateException.class);
+        assertThatThrownBy(() -> dispatcher.tryInsert(new RevisionedId("id", 1, false), "payload")).isInstanceOf(IllegalStateException.class);
+    }
+}
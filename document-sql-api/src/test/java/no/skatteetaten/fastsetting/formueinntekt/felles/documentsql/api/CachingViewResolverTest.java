@@ -0,0 +1,51 @@
+package no.skatteetaten.fastsetting.formueinntekt.felles.documentsql.api;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import no.skatteetaten.fastsetting.formueinntekt.felles.documentsql.api.sample.BranchSample;
+import no.skatteetaten.fastsetting.formueinntekt.felles.documentsql.api.sample.TerminalSample;
+import org.junit.Test;
+
+public class CachingViewResolverTest {
+
+    @Test
+    public void resolves_views_once() {
+        AtomicInteger resolutions = new AtomicInteger();
+        ViewResolver delegate = new SimpleViewResolver();
+        ViewResolver resolver = new CachingViewResolver((type, roots) -> {
+            resolutions.incrementAndGet();
+            return delegate.resolve(type, roots);
+        });
+        Map<List<List<PathElement>>, Map<List<PathElement>, Class<?>>> views = resolver.resolve(BranchSample.class, "root");
+        assertThat(views).isEqualTo(delegate.resolve(BranchSample.class, "root"));
+        assertThat(resolver.resolve(BranchSample.class, "root")).isSameAs(views);
+        assertThat(resolutions).hasValue(1);
+    }
+
+    @Test
+    public void distinguishes_types_and_roots() {
+        AtomicInteger resolutions = new AtomicInteger();
+        ViewResolver delegate = new SimpleViewResolver();
+        ViewResolver resolver = new CachingViewResolver((type, roots) -> {
+            resolutions.incrementAndGet();
+            return delegate.resolve(type, roots);
+        });
+        assertThat(resolver.resolve(TerminalSample.class)).isEqualTo(delegate.resolve(TerminalSample.class));
+        assertThat(resolver.resolve(TerminalSample.class, "root")).isEqualTo(delegate.resolve(TerminalSample.class, "root"));
+        assertThat(resolver.resolve(BranchSample.class)).isEqualTo(delegate.resolve(BranchSample.class));
+        assertThat(resolutions).hasValue(3);
+    }
+
+    @Test
+    public void cached_views_are_immutable() {
+        Map<List<List<PathElement>>, Map<List<PathElement>, Class<?>>> views = new CachingViewResolver(new SimpleViewResolver()).resolve(TerminalSample.class);
+        assertThatThrownBy(views::clear).isInstanceOf(UnsupportedOperationException.class);
+        assertThatThrownBy(() -> views.get(Collections.emptyList()).clear()).isInstanceOf(UnsupportedOperationException.class);
+    }
+}
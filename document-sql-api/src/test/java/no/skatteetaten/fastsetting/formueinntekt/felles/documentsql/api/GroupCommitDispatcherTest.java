@@ -0,0 +1,149 @@
+package no.skatteetaten.fastsetting.formueinntekt.felles.documentsql.api;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.stream.Stream;
+
+import javax.sql.DataSource;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+public class GroupCommitDispatcherTest {
+
+    private ScheduledExecutorService executor;
+
+    private RecordingDataSource recording;
+
+    private DataSource dataSource;
+
+    private RecordingDispatcher delegate;
+
+    @Before
+    public void setUp() {
+        executor = Executors.newScheduledThreadPool(2);
+        recording = new RecordingDataSource();
+        dataSource = recording.dataSource;
+        delegate = new RecordingDispatcher();
+    }
+
+    @After
+    public void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    public void coalesces_inserts_by_size() throws Exception {
+        GroupCommitDispatcher<String> dispatcher = new GroupCommitDispatcher<>(delegate, executor, 3, Duration.ofMinutes(1));
+        List<CompletableFuture<Void>> futures = new ArrayList<>();
+        for (int index = 0; index < 6; index++) {
+            futures.add(dispatcher.submit(dataSource, new RevisionedId("id" + index, 1, false), "payload"));
+        }
+        CompletableFuture.allOf(futures.toArray(CompletableFuture[]::new)).get();
+        assertThat(delegate.batches).containsExactlyInAnyOrder(List.of("id0", "id1", "id2"), List.of("id3", "id4", "id5"));
+        assertThat(recording.commits).hasValue(2);
+    }
+
+    @Test
+    public void coalesces_inserts_by_delay() throws Exception {
+        GroupCommitDispatcher<String> dispatcher = new GroupCommitDispatcher<>(delegate, executor, 100, Duration.ofMillis(10));
+        dispatcher.insert(dataSource, "id", 1, "payload");
+        assertThat(delegate.batches).containsExactly(List.of("id"));
+        assertThat(recording.commits).hasValue(1);
+    }
+
+    @Test
+    public void separates_duplicate_documents() throws Exception {
+        GroupCommitDispatcher<String> dispatcher = new GroupCommitDispatcher<>(delegate, executor, 100, Duration.ofMinutes(1));
+        CompletableFuture<Void> first = dispatcher.submit(dataSource, new RevisionedId("id", 1, false), "payload");
+        CompletableFuture<Void> second = dispatcher.submit(dataSource, new RevisionedId("id", 1, false), "payload");
+        first.get();
+        dispatcher.flush();
+        second.get();
+        assertThat(delegate.batches).containsExactly(List.of("id"), List.of("id"));
+    }
+
+    @Test
+    public void isolates_failed_documents() throws Exception {
+        GroupCommitDispatcher<String> dispatcher = new GroupCommitDispatcher<>(delegate, executor, 3, Duration.ofMinutes(1));
+        CompletableFuture<Void> first = dispatcher.submit(dataSource, new RevisionedId("id1", 1, false), "payload");
+        CompletableFuture<Void> failed = dispatcher.submit(dataSource, new RevisionedId("id2", 1, false), RecordingDispatcher.INVALID);
+        CompletableFuture<Void> third = dispatcher.submit(dataSource, new RevisionedId("id3", 1, false), "payload");
+        first.get();
+        third.get();
+        assertThatThrownBy(failed::get).isInstanceOf(ExecutionException.class).hasCauseInstanceOf(SQLException.class);
+        assertThat(recording.commits).hasValue(2);
+        assertThat(recording.rollbacks).hasValue(2);
+    }
+
+    @Test
+    public void propagates_failure_to_caller() {
+        GroupCommitDispatcher<String> dispatcher = new GroupCommitDispatcher<>(delegate, executor, 1, Duration.ofMinutes(1));
+        assertThatThrownBy(() -> dispatcher.insert(dataSource, "id", RecordingDispatcher.INVALID)).isInstanceOf(SQLException.class);
+    }
+
+    @Test
+    public void fails_documents_when_timer_is_rejected() {
+        executor.shutdown();
+        GroupCommitDispatcher<String> dispatcher = new GroupCommitDispatcher<>(delegate, executor, 1, Duration.ofMinutes(1));
+        CompletableFuture<Void> future = dispatcher.submit(dataSource, new RevisionedId("id", 1, false), "payload");
+        assertThatThrownBy(future::get).isInstanceOf(ExecutionException.class).hasCauseInstanceOf(RejectedExecutionException.class);
+        assertThat(delegate.batches).isEmpty();
+    }
+
+    @Test
+    public void fails_batch_when_write_is_rejected() {
+        ScheduledExecutorService rejecting = new ScheduledThreadPoolExecutor(1) {
+            @Override
+            public void execute(Runnable command) {
+                throw new RejectedExecutionException();
+            }
+        };
+        try {
+            GroupCommitDispatcher<String> dispatcher = new GroupCommitDispatcher<>(delegate, rejecting, 2, Duration.ofMinutes(1));
+            CompletableFuture<Void> first = dispatcher.submit(dataSource, new RevisionedId("id1", 1, false), "payload");
+            CompletableFuture<Void> second = dispatcher.submit(dataSource, new RevisionedId("id2", 1, false), "payload");
+            assertThatThrownBy(first::get).isInstanceOf(ExecutionException.class).hasCauseInstanceOf(RejectedExecutionException.class);
+            assertThatThrownBy(second::get).isInstanceOf(ExecutionException.class).hasCauseInstanceOf(RejectedExecutionException.class);
+            assertThat(delegate.batches).isEmpty();
+        } finally {
+            rejecting.shutdownNow();
+        }
+    }
+
+    @Test
+    public void forwards_bulk_inserts_to_delegate() throws SQLException {
+        RecordingDispatcher loading = new RecordingDispatcher() {
+            @Override
+            public void load(Connection conn, Iterator<Map.Entry<RevisionedId, String>> payloads) {
+                batches.add(List.of("load"));
+            }
+
+            @Override
+            public void insertAll(Connection conn, Iterator<Map.Entry<RevisionedId, String>> payloads, int batchSize) {
+                batches.add(List.of("insertAll"));
+            }
+        };
+        GroupCommitDispatcher<String> dispatcher = new GroupCommitDispatcher<>(loading, executor, 100, Duration.ofMinutes(1));
+        try (Connection conn = dataSource.getConnection()) {
+            dispatcher.load(conn, Stream.of(Map.entry(new RevisionedId("id", 1, false), "payload")));
+            dispatcher.insertAll(conn, Stream.of(Map.entry(new RevisionedId("id", 1, false), "payload")), 10);
+        }
+        assertThat(loading.batches).containsExactly(List.of("load"), List.of("insertAll"));
+    }
+}
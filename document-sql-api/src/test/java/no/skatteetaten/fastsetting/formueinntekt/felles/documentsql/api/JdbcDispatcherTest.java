@@ -0,0 +1,64 @@
+package no.skatteetaten.fastsetting.formueinntekt.felles.documentsql.api;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.entry;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLIntegrityConstraintViolationException;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+
+import javax.sql.DataSource;
+
+import org.junit.Test;
+
+public class JdbcDispatcherTest {
+
+    @Test
+    public void insert_if_absent_row_by_row() throws SQLException {
+        Set<RevisionedId> stored = new HashSet<>();
+        RecordingDispatcher dispatcher = new RecordingDispatcher() {
+            @Override
+            public void insert(Connection conn, Map<RevisionedId, String> payloads) throws SQLException {
+                for (RevisionedId id : payloads.keySet()) {
+                    if (!stored.add(id)) {
+                        throw new SQLIntegrityConstraintViolationException("Duplicate document: " + id);
+                    }
+                }
+                super.insert(conn, payloads);
+            }
+        };
+        DataSource dataSource = new RecordingDataSource().dataSource;
+
+        dispatcher.insert(dataSource, new RevisionedId("X", 1, false), "foo");
+
+        Map<RevisionedId, String> payloads = new LinkedHashMap<>();
+        payloads.put(new RevisionedId("X", 1, false), "foo");
+        payloads.put(new RevisionedId("X", 2, false), "bar");
+        assertThat(dispatcher.insertIfAbsent(dataSource, payloads)).containsExactly(
+            entry(new RevisionedId("X", 1, false), false),
+            entry(new RevisionedId("X", 2, false), true)
+        );
+    }
+
+    @Test(expected = SQLException.class)
+    public void insert_if_absent_row_by_row_propagates_other_errors() throws SQLException {
+        new RecordingDispatcher().insertIfAbsent(new RecordingDataSource().dataSource, new RevisionedId("X", 1, false), RecordingDispatcher.INVALID);
+    }
+
+    @Test
+    public void stub_dispatcher_is_no_op() throws SQLException {
+        StubJdbcDispatcher<String> dispatcher = new StubJdbcDispatcher<>();
+        DataSource dataSource = new RecordingDataSource().dataSource;
+
+        assertThat(dispatcher.insertIfAbsent(dataSource, new RevisionedId("X", 1, false), "foo")).isTrue();
+        assertThat(dispatcher.append(dataSource, "X", "foo")).isEqualTo(new RevisionedId("X", 1, false));
+        assertThat(dispatcher.retain(dataSource, 1)).isEqualTo(0);
+        dispatcher.addPartition(dataSource, "P1", null, "1");
+        dispatcher.detachPartition(dataSource, "P1");
+        dispatcher.dropPartition(dataSource, "P1");
+    }
+}
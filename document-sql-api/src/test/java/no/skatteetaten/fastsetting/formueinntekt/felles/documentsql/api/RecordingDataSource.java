@@ -0,0 +1,51 @@
+package no.skatteetaten.fastsetting.formueinntekt.felles.documentsql.api;
+
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.sql.DataSource;
+
+class RecordingDataSource {
+
+    final AtomicInteger commits = new AtomicInteger(), rollbacks = new AtomicInteger();
+
+    final DataSource dataSource;
+
+    RecordingDataSource() {
+        Connection conn = (Connection) Proxy.newProxyInstance(
+            Connection.class.getClassLoader(),
+            new Class<?>[] {Connection.class},
+            (proxy, method, args) -> {
+                switch (method.getName()) {
+                case "getAutoCommit":
+                    return true;
+                case "commit":
+                    commits.incrementAndGet();
+                    return null;
+                case "rollback":
+                    rollbacks.incrementAndGet();
+                    return null;
+                default:
+                    return null;
+                }
+            }
+        );
+        dataSource = (DataSource) Proxy.newProxyInstance(
+            DataSource.class.getClassLoader(),
+            new Class<?>[] {DataSource.class},
+            (proxy, method, args) -> {
+                switch (method.getName()) {
+                case "getConnection":
+                    return conn;
+                case "hashCode":
+                    return System.identityHashCode(proxy);
+                case "equals":
+                    return proxy == args[0];
+                default:
+                    return null;
+                }
+            }
+        );
+    }
+}
@@ -0,0 +1,42 @@
+package no.skatteetaten.fastsetting.formueinntekt.felles.documentsql.api;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+
+import javax.sql.DataSource;
+
+class RecordingDispatcher implements JdbcDispatcher<String> {
+
+    static final String INVALID = "invalid";
+
+    final List<List<String>> batches = new CopyOnWriteArrayList<>();
+
+    @Override
+    public void printTo(Consumer<List<String>> consumer) { }
+
+    @Override
+    public void create(DataSource dataSource, Collection<String> users, Consumer<String> callback) { }
+
+    @Override
+    public void drop(DataSource dataSource, Consumer<String> callback, Predicate<SQLException> check) { }
+
+    @Override
+    public void truncate(DataSource dataSource) { }
+
+    @Override
+    public void insert(Connection conn, Map<RevisionedId, String> payloads) throws SQLException {
+        if (payloads.containsValue(INVALID)) {
+            throw new SQLException("Invalid payload");
+        }
+        List<String> ids = new ArrayList<>();
+        payloads.keySet().forEach(id -> ids.add(id.getId()));
+        batches.add(ids);
+    }
+}
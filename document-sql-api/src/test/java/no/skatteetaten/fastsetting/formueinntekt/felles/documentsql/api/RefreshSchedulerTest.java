@@ -0,0 +1,54 @@
+package no.skatteetaten.fastsetting.formueinntekt.felles.documentsql.api;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Optional;
+
+import javax.sql.DataSource;
+
+import org.junit.Test;
+
+public class RefreshSchedulerTest {
+
+    private final DataSource dataSource = new RecordingDataSource().dataSource;
+
+    @Test
+    public void continues_after_failed_refresh() {
+        RefreshScheduler scheduler = new RefreshScheduler(dataSource, Duration.ZERO, new FailingDispatcher(), new StaleDispatcher());
+        scheduler.run();
+        scheduler.run();
+        assertThat(scheduler.getRefreshes()).isEqualTo(2);
+        assertThat(scheduler.getFailures()).isEqualTo(2);
+        assertThat(scheduler.getLastFailure()).get().extracting(Throwable::getMessage).isEqualTo("Failed refresh");
+    }
+
+    @Test
+    public void can_propagate_failed_refresh() {
+        RefreshScheduler scheduler = new RefreshScheduler(dataSource, Duration.ZERO, Arrays.asList(new FailingDispatcher(), new StaleDispatcher()), exception -> {
+            throw new IllegalStateException(exception);
+        });
+        assertThatThrownBy(scheduler::run).isInstanceOf(IllegalStateException.class).hasCauseInstanceOf(SQLException.class);
+        assertThat(scheduler.getRefreshes()).isEqualTo(0);
+        assertThat(scheduler.getFailures()).isEqualTo(1);
+    }
+
+    static class StaleDispatcher extends RecordingDispatcher {
+
+        @Override
+        public Optional<Duration> getStaleness(DataSource dataSource) {
+            return Optional.of(Duration.ofSeconds(1));
+        }
+    }
+
+    static class FailingDispatcher extends StaleDispatcher {
+
+        @Override
+        public void refresh(DataSource dataSource) throws SQLException {
+            throw new SQLException("Failed refresh");
+        }
+    }
+}
@@ -2,6 +2,7 @@ package no.skatteetaten.fastsetting.formueinntekt.felles.documentsql.api;
 
 import no.skatteetaten.fastsetting.formueinntekt.felles.documentsql.api.sample.BranchListSample;
 import no.skatteetaten.fastsetting.formueinntekt.felles.documentsql.api.sample.BranchSample;
+import no.skatteetaten.fastsetting.formueinntekt.felles.documentsql.api.sample.BranchTreeSample;
 import no.skatteetaten.fastsetting.formueinntekt.felles.documentsql.api.sample.TerminalListSample;
 import no.skatteetaten.fastsetting.formueinntekt.felles.documentsql.api.sample.TerminalSample;
 import no.skatteetaten.fastsetting.formueinntekt.felles.documentsql.api.sample.BranchRecursiveSample;
@@ -14,6 +15,7 @@ import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
 
 public class SimpleViewResolverTest {
 
@@ -170,4 +172,27 @@ public class SimpleViewResolverTest {
         ).resolve(BranchRecursiveListSample.class);
         assertThat(views).isEmpty();
     }
+
+    @Test
+    public void can_resolve_in_parallel_with_stable_order() {
+        Map<List<List<PathElement>>, Map<List<PathElement>, Class<?>>> expected = new SimpleViewResolver().resolve(BranchTreeSample.class, "root");
+        ForkJoinPool pool = new ForkJoinPool(4);
+        try {
+            for (int index = 0; index < 10; index++) {
+                Map<List<List<PathElement>>, Map<List<PathElement>, Class<?>>> views = new SimpleViewResolver()
+                    .withParallelism(pool)
+                    .resolve(BranchTreeSample.class, "root");
+                assertThat(views).containsExactlyEntriesOf(expected);
+                views.forEach((paths, properties) -> assertThat(properties).containsExactlyEntriesOf(expected.get(paths)));
+            }
+        } finally {
+            pool.shutdown();
+        }
+        assertThat(expected).hasSize(4);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void can_detect_recursive_branch_list_in_parallel() {
+        new SimpleViewResolver().withParallelism(ForkJoinPool.commonPool()).resolve(BranchRecursiveListSample.class);
+    }
 }
@@ -0,0 +1,36 @@
+package no.skatteetaten.fastsetting.formueinntekt.felles.documentsql.api;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+
+import org.junit.Test;
+
+public class ThreadSupportTest {
+
+    @Test
+    public void can_execute_blocking_tasks() throws Exception {
+        CompletableFuture<Boolean> future = CompletableFuture.supplyAsync(
+            () -> Thread.currentThread().isDaemon(),
+            ThreadSupport.executor()
+        );
+        assertThat(future.get()).isTrue();
+    }
+
+    @Test
+    public void can_create_bounded_executor() throws Exception {
+        ExecutorService executorService = ThreadSupport.newExecutor(2);
+        try {
+            assertThat(executorService.submit(() -> "value").get()).isEqualTo("value");
+        } finally {
+            executorService.shutdownNow();
+        }
+    }
+
+    @Test
+    public void rejects_non_positive_threads() {
+        assertThatThrownBy(() -> ThreadSupport.newExecutor(0)).isInstanceOf(IllegalArgumentException.class);
+    }
+}
@@ -0,0 +1,16 @@
+package no.skatteetaten.fastsetting.formueinntekt.felles.documentsql.api.sample;
+
+import java.util.List;
+
+public class BranchTreeSample {
+
+    private String terminal;
+
+    private List<BranchListSample> first;
+
+    private BranchSample branch;
+
+    private List<TerminalListSample> second;
+
+    private List<BranchSample> third;
+}
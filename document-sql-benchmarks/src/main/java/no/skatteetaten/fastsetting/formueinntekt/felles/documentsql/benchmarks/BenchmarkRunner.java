@@ -0,0 +1,34 @@
+package no.skatteetaten.fastsetting.formueinntekt.felles.documentsql.benchmarks;
+
+import java.util.Collections;
+import java.util.stream.Stream;
+
+import org.openjdk.jmh.Main;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+public class BenchmarkRunner {
+
+    public static void main(String[] args) throws Exception {
+        CommandLineOptions options = new CommandLineOptions(args);
+        if (options.shouldHelp() || options.shouldList() || options.shouldListWithParams()
+            || options.shouldListProfilers() || options.shouldListResultFormats()) {
+            Main.main(args);
+            return;
+        }
+        OptionsBuilder builder = new OptionsBuilder();
+        builder.parent(options);
+        if (options.getProfilers().isEmpty()) {
+            builder.addProfiler(GCProfiler.class);
+        }
+        builder.jvmArgsAppend(Stream.concat(
+            options.getJvmArgsAppend().orElse(Collections.emptyList()).stream(),
+            System.getProperties().stringPropertyNames().stream()
+                .filter(property -> property.startsWith("benchmark."))
+                .map(property -> "-D" + property + "=" + System.getProperty(property))
+        ).toArray(String[]::new));
+        new Runner(builder.build()).run();
+    }
+}
@@ -0,0 +1,114 @@
+package no.skatteetaten.fastsetting.formueinntekt.felles.documentsql.benchmarks;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import no.skatteetaten.fastsetting.formueinntekt.felles.documentsql.api.CapitalizingNameResolver;
+import no.skatteetaten.fastsetting.formueinntekt.felles.documentsql.api.JaxbHandler;
+import no.skatteetaten.fastsetting.formueinntekt.felles.documentsql.api.JaxbPathResolver;
+import no.skatteetaten.fastsetting.formueinntekt.felles.documentsql.api.JdbcDispatcher;
+import no.skatteetaten.fastsetting.formueinntekt.felles.documentsql.api.JdbcDispatcherFactory;
+import no.skatteetaten.fastsetting.formueinntekt.felles.documentsql.api.NameResolver;
+import no.skatteetaten.fastsetting.formueinntekt.felles.documentsql.api.PathElement;
+import no.skatteetaten.fastsetting.formueinntekt.felles.documentsql.api.SimpleTableResolver;
+import no.skatteetaten.fastsetting.formueinntekt.felles.documentsql.api.SimpleViewResolver;
+import no.skatteetaten.fastsetting.formueinntekt.felles.documentsql.api.TableResolver;
+import no.skatteetaten.fastsetting.formueinntekt.felles.documentsql.oracle.OracleDispatcherFactory;
+import no.skatteetaten.fastsetting.formueinntekt.felles.documentsql.postgres.PostgresDispatcherFactory;
+import no.skatteetaten.fastsetting.formueinntekt.felles.documentsql.postgres.PostgresMaintenance;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class DdlGenerationBenchmark {
+
+    @Param({"ORACLE_XML", "ORACLE_JSON", "POSTGRES_XML", "POSTGRES_XML_INCREMENTAL", "POSTGRES_JSON"})
+    public Dialect dialect;
+
+    @Param({"10", "100"})
+    public int width;
+
+    private JdbcDispatcherFactory factory;
+
+    private Map<List<List<PathElement>>, Map<List<PathElement>, Class<?>>> views;
+
+    private NameResolver nameResolver;
+
+    private TableResolver<String> tableResolver;
+
+    @Setup
+    public void setUp() {
+        factory = dialect.toFactory();
+        views = new SimpleViewResolver(new JaxbPathResolver(JaxbHandler.ofJakarta())).resolve(SampleModels.wide(width));
+        nameResolver = new CapitalizingNameResolver();
+        tableResolver = SimpleTableResolver.ofString();
+    }
+
+    @Benchmark
+    public JdbcDispatcher<String> create() {
+        return factory.create("sample", views, nameResolver, tableResolver);
+    }
+
+    @Benchmark
+    public List<String> print() {
+        List<String> statements = new ArrayList<>();
+        factory.create("sample", views, nameResolver, tableResolver).printToEach(statements::add);
+        return statements;
+    }
+
+    public enum Dialect {
+
+        ORACLE_XML {
+            @Override
+            JdbcDispatcherFactory toFactory() {
+                return OracleDispatcherFactory.ofXml();
+            }
+        },
+
+        ORACLE_JSON {
+            @Override
+            JdbcDispatcherFactory toFactory() {
+                return OracleDispatcherFactory.ofJson();
+            }
+        },
+
+        POSTGRES_XML {
+            @Override
+            JdbcDispatcherFactory toFactory() {
+                return PostgresDispatcherFactory.ofXml();
+            }
+        },
+
+        POSTGRES_XML_INCREMENTAL {
+            @Override
+            JdbcDispatcherFactory toFactory() {
+                return PostgresDispatcherFactory.ofXml().withMaintenance(PostgresMaintenance.INCREMENTAL);
+            }
+        },
+
+        POSTGRES_JSON {
+            @Override
+            JdbcDispatcherFactory toFactory() {
+                return PostgresDispatcherFactory.ofJson();
+            }
+        };
+
+        abstract JdbcDispatcherFactory toFactory();
+    }
+}
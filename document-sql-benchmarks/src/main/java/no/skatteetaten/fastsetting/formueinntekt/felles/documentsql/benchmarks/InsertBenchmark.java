@@ -0,0 +1,54 @@
+package no.skatteetaten.fastsetting.formueinntekt.felles.documentsql.benchmarks;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.AbstractMap;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+
+import no.skatteetaten.fastsetting.formueinntekt.felles.documentsql.api.JdbcDispatcher;
+import no.skatteetaten.fastsetting.formueinntekt.felles.documentsql.api.RevisionedId;
+import no.skatteetaten.fastsetting.formueinntekt.felles.documentsql.api.StubJdbcDispatcher;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class InsertBenchmark {
+
+    @Param({"1", "100", "1000"})
+    public int batchSize;
+
+    private JdbcDispatcher<String> dispatcher;
+
+    private Map.Entry<RevisionedId, String>[] payloads;
+
+    @Setup
+    @SuppressWarnings("unchecked")
+    public void setUp() {
+        dispatcher = new StubJdbcDispatcher<>();
+        payloads = IntStream.range(0, 1000)
+            .mapToObj(index -> new AbstractMap.SimpleEntry<>(new RevisionedId("id" + index, 1, false), "<sample><val>" + index + "</val></sample>"))
+            .toArray(Map.Entry[]::new);
+    }
+
+    @Benchmark
+    public void insert_stub() throws SQLException {
+        dispatcher.insertAll((Connection) null, Arrays.stream(payloads), batchSize);
+    }
+}
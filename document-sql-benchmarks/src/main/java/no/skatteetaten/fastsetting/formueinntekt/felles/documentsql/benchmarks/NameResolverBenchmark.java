@@ -0,0 +1,47 @@
+package no.skatteetaten.fastsetting.formueinntekt.felles.documentsql.benchmarks;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import no.skatteetaten.fastsetting.formueinntekt.felles.documentsql.api.CapitalizingNameResolver;
+import no.skatteetaten.fastsetting.formueinntekt.felles.documentsql.api.NameResolver;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class NameResolverBenchmark {
+
+    private final NameResolver resolver = new CapitalizingNameResolver();
+
+    private final List<String> shortPath = Arrays.asList("sample", "value");
+
+    private final List<String> longPath = Arrays.asList("skattemelding", "formuesgrunnlag", "bankinnskudd", "innskuddsbeloep", "beloepIValuta");
+
+    @Benchmark
+    public String resolve_short() {
+        return resolver.resolve(shortPath, name -> false);
+    }
+
+    @Benchmark
+    public String resolve_long() {
+        return resolver.resolve(longPath, name -> false);
+    }
+
+    @Benchmark
+    public String resolve_reserved() {
+        return resolver.resolve(shortPath, name -> name.equals("SAMPLE_VALUE"));
+    }
+}
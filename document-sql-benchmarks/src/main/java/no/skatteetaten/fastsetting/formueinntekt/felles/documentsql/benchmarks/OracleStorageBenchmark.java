@@ -0,0 +1,168 @@
+package no.skatteetaten.fastsetting.formueinntekt.felles.documentsql.benchmarks;
+
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import no.skatteetaten.fastsetting.formueinntekt.felles.documentsql.api.JaxbHandler;
+import no.skatteetaten.fastsetting.formueinntekt.felles.documentsql.api.JaxbPathResolver;
+import no.skatteetaten.fastsetting.formueinntekt.felles.documentsql.api.JdbcDispatcher;
+import no.skatteetaten.fastsetting.formueinntekt.felles.documentsql.api.RevisionedId;
+import no.skatteetaten.fastsetting.formueinntekt.felles.documentsql.api.SimpleViewResolver;
+import no.skatteetaten.fastsetting.formueinntekt.felles.documentsql.oracle.OracleDispatcherFactory;
+import oracle.jdbc.pool.OracleDataSource;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class OracleStorageBenchmark {
+
+    private static final String URL = "benchmark.oracle.url", USER = "benchmark.oracle.user", PASSWORD = "benchmark.oracle.password";
+
+    private static final int ROWS = 100;
+
+    @Param({"XML", "XML_BINARY", "JSON", "JSON_NATIVE"})
+    public Storage storage;
+
+    @Param({"1024", "102400"})
+    public int size;
+
+    private OracleDataSource dataSource;
+
+    private JdbcDispatcher<String> dispatcher;
+
+    private Connection conn;
+
+    private String padding;
+
+    private long counter;
+
+    @Setup
+    public void setUp() throws SQLException {
+        String url = System.getProperty(URL);
+        if (url == null) {
+            throw new IllegalStateException("Set -D" + URL + "=jdbc:oracle:thin:@... to run Oracle benchmarks");
+        }
+        dataSource = new OracleDataSource();
+        dataSource.setURL(url);
+        dataSource.setUser(System.getProperty(USER, "system"));
+        dataSource.setPassword(System.getProperty(PASSWORD, ""));
+        try (Connection conn = dataSource.getConnection()) {
+            if (conn.getMetaData().getDatabaseMajorVersion() < storage.version) {
+                throw new IllegalStateException(storage + " storage requires Oracle " + storage.version + " or later");
+            }
+        }
+        dispatcher = storage.toDispatcher();
+        dispatcher.drop(dataSource, sql -> { }, exception -> true);
+        dispatcher.create(dataSource);
+        padding = "x".repeat(size);
+        conn = dataSource.getConnection();
+        Map<RevisionedId, String> payloads = new LinkedHashMap<>();
+        for (int index = 0; index < ROWS; index++) {
+            payloads.put(new RevisionedId("query" + index, 1, false), storage.toPayload("foo", padding));
+        }
+        dispatcher.insert(conn, payloads);
+    }
+
+    @TearDown
+    public void tearDown() throws SQLException {
+        conn.close();
+        dispatcher.drop(dataSource);
+    }
+
+    @Benchmark
+    public void insert() throws SQLException {
+        dispatcher.insert(conn, "id" + counter++, 1, storage.toPayload("bar", padding));
+    }
+
+    @Benchmark
+    public int query() throws SQLException {
+        try (
+            Statement stmt = conn.createStatement();
+            ResultSet rs = stmt.executeQuery("SELECT COUNT(*) FROM BENCHMARK WHERE VALUE0 = 'foo'")
+        ) {
+            rs.next();
+            return rs.getInt(1);
+        }
+    }
+
+    public enum Storage {
+
+        XML(18) {
+            @Override
+            JdbcDispatcher<String> toDispatcher() {
+                return JdbcDispatcher.of(OracleDispatcherFactory.ofXml())
+                    .withViewResolver(new SimpleViewResolver(new JaxbPathResolver(JaxbHandler.ofJakarta())))
+                    .build("benchmark", SampleModels.wide(4), "wide");
+            }
+        },
+
+        XML_BINARY(18) {
+            @Override
+            JdbcDispatcher<String> toDispatcher() {
+                return JdbcDispatcher.of(OracleDispatcherFactory.ofXml().withBinaryXml(true))
+                    .withViewResolver(new SimpleViewResolver(new JaxbPathResolver(JaxbHandler.ofJakarta())))
+                    .build("benchmark", SampleModels.wide(4), "wide");
+            }
+        },
+
+        JSON(18) {
+            @Override
+            JdbcDispatcher<String> toDispatcher() {
+                return JdbcDispatcher.of(OracleDispatcherFactory.ofJson())
+                    .withViewResolver(new SimpleViewResolver(new JaxbPathResolver(JaxbHandler.ofJakarta())))
+                    .build("benchmark", SampleModels.wide(4));
+            }
+
+            @Override
+            String toPayload(String value, String padding) {
+                return "{\"value0\":\"" + value + "\",\"flag2\":true,\"pad\":\"" + padding + "\"}";
+            }
+        },
+
+        JSON_NATIVE(21) {
+            @Override
+            JdbcDispatcher<String> toDispatcher() {
+                return JdbcDispatcher.of(OracleDispatcherFactory.ofNativeJson())
+                    .withViewResolver(new SimpleViewResolver(new JaxbPathResolver(JaxbHandler.ofJakarta())))
+                    .build("benchmark", SampleModels.wide(4));
+            }
+
+            @Override
+            String toPayload(String value, String padding) {
+                return "{\"value0\":\"" + value + "\",\"flag2\":true,\"pad\":\"" + padding + "\"}";
+            }
+        };
+
+        private final int version;
+
+        Storage(int version) {
+            this.version = version;
+        }
+
+        abstract JdbcDispatcher<String> toDispatcher();
+
+        String toPayload(String value, String padding) {
+            return "<wide><value0>" + value + "</value0><flag2>true</flag2><pad>" + padding + "</pad></wide>";
+        }
+    }
+}
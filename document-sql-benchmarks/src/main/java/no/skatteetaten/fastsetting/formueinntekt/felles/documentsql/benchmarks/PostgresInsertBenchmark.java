@@ -0,0 +1,87 @@
+package no.skatteetaten.fastsetting.formueinntekt.felles.documentsql.benchmarks;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import no.skatteetaten.fastsetting.formueinntekt.felles.documentsql.api.JaxbHandler;
+import no.skatteetaten.fastsetting.formueinntekt.felles.documentsql.api.JaxbPathResolver;
+import no.skatteetaten.fastsetting.formueinntekt.felles.documentsql.api.JdbcDispatcher;
+import no.skatteetaten.fastsetting.formueinntekt.felles.documentsql.api.RevisionedId;
+import no.skatteetaten.fastsetting.formueinntekt.felles.documentsql.api.SimpleViewResolver;
+import no.skatteetaten.fastsetting.formueinntekt.felles.documentsql.postgres.PostgresDispatcherFactory;
+import no.skatteetaten.fastsetting.formueinntekt.felles.documentsql.postgres.PostgresMaintenance;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.postgresql.ds.PGSimpleDataSource;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class PostgresInsertBenchmark {
+
+    private static final String URL = "benchmark.postgres.url", USER = "benchmark.postgres.user", PASSWORD = "benchmark.postgres.password";
+
+    @Param({"REFRESH", "INCREMENTAL"})
+    public PostgresMaintenance maintenance;
+
+    @Param({"1", "100"})
+    public int batchSize;
+
+    private PGSimpleDataSource dataSource;
+
+    private JdbcDispatcher<String> dispatcher;
+
+    private Connection conn;
+
+    private long counter;
+
+    @Setup
+    public void setUp() throws SQLException {
+        String url = System.getProperty(URL);
+        if (url == null) {
+            throw new IllegalStateException("Set -D" + URL + "=jdbc:postgresql://... to run Postgres benchmarks");
+        }
+        dataSource = new PGSimpleDataSource();
+        dataSource.setUrl(url);
+        dataSource.setUser(System.getProperty(USER, "postgres"));
+        dataSource.setPassword(System.getProperty(PASSWORD, ""));
+        dispatcher = JdbcDispatcher.of(PostgresDispatcherFactory.ofXml().withMaintenance(maintenance))
+            .withViewResolver(new SimpleViewResolver(new JaxbPathResolver(JaxbHandler.ofJakarta())))
+            .build("benchmark", SampleModels.wide(10), "wide");
+        dispatcher.drop(dataSource, sql -> { }, exception -> true);
+        dispatcher.create(dataSource);
+        conn = dataSource.getConnection();
+    }
+
+    @TearDown
+    public void tearDown() throws SQLException {
+        conn.close();
+        dispatcher.drop(dataSource);
+    }
+
+    @Benchmark
+    public void insert() throws SQLException {
+        Map<RevisionedId, String> payloads = new LinkedHashMap<>();
+        for (int index = 0; index < batchSize; index++) {
+            long id = counter++;
+            payloads.put(new RevisionedId("id" + id, 1, false), "<wide><value0>" + id + "</value0><flag2>true</flag2></wide>");
+        }
+        dispatcher.insert(conn, payloads);
+    }
+}
@@ -0,0 +1,116 @@
+package no.skatteetaten.fastsetting.formueinntekt.felles.documentsql.benchmarks;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.Stream;
+
+import javax.tools.JavaCompiler;
+import javax.tools.ToolProvider;
+
+class SampleModels {
+
+    private static final String PACKAGE = "generated";
+
+    private SampleModels() { }
+
+    static Class<?> wide(int width) {
+        StringBuilder root = header("Wide");
+        List<String> sources = new ArrayList<>();
+        for (int index = 0; index < width; index++) {
+            switch (index % 4) {
+            case 0:
+                root.append("    public String value").append(index).append(";\n");
+                break;
+            case 1:
+                root.append("    public java.math.BigDecimal amount").append(index).append(";\n");
+                break;
+            case 2:
+                root.append("    public Boolean flag").append(index).append(";\n");
+                break;
+            default:
+                root.append("    @XmlElement(name = \"item").append(index).append("\")\n");
+                root.append("    public java.util.List<Item> items").append(index).append(";\n");
+            }
+        }
+        sources.add(root.append("}\n").toString());
+        sources.add(header("Item")
+            .append("    public String name;\n")
+            .append("    public Integer count;\n")
+            .append("}\n")
+            .toString());
+        return compile("Wide", sources);
+    }
+
+    static Class<?> deep(int depth) {
+        return deep(depth, false);
+    }
+
+    static Class<?> deep(int depth, boolean list) {
+        List<String> sources = new ArrayList<>();
+        for (int index = 0; index < depth; index++) {
+            StringBuilder type = header("Deep" + index)
+                .append("    public String value;\n")
+                .append("    public Integer count;\n");
+            if (index < depth - 1) {
+                if (list) {
+                    type.append("    public java.util.List<Deep").append(index + 1).append("> children;\n");
+                } else {
+                    type.append("    public Deep").append(index + 1).append(" child;\n");
+                }
+            }
+            sources.add(type.append("}\n").toString());
+        }
+        return compile("Deep0", sources);
+    }
+
+    private static StringBuilder header(String name) {
+        return new StringBuilder()
+            .append("package ").append(PACKAGE).append(";\n\n")
+            .append("import jakarta.xml.bind.annotation.*;\n\n")
+            .append("@XmlRootElement(name = \"").append(name.toLowerCase()).append("\")\n")
+            .append("@XmlAccessorType(XmlAccessType.FIELD)\n")
+            .append("public class ").append(name).append(" {\n");
+    }
+
+    private static Class<?> compile(String root, List<String> sources) {
+        JavaCompiler compiler = ToolProvider.getSystemJavaCompiler();
+        if (compiler == null) {
+            throw new IllegalStateException("Sample models can only be generated when running on a JDK");
+        }
+        try {
+            Path folder = Files.createTempDirectory("document-sql-benchmark");
+            Path target = Files.createDirectories(folder.resolve(PACKAGE));
+            List<String> arguments = new ArrayList<>(List.of(
+                "-classpath", System.getProperty("java.class.path"),
+                "-d", folder.toString()
+            ));
+            for (String source : sources) {
+                String name = source.substring(source.indexOf("public class ") + 13, source.indexOf(" {"));
+                Path file = target.resolve(name + ".java");
+                Files.write(file, source.getBytes(StandardCharsets.UTF_8));
+                arguments.add(file.toString());
+            }
+            if (compiler.run(null, null, null, arguments.toArray(new String[0])) != 0) {
+                throw new IllegalStateException("Failed to compile sample models in " + folder);
+            }
+            ClassLoader classLoader = new URLClassLoader(new URL[] {folder.toUri().toURL()}, SampleModels.class.getClassLoader());
+            Class<?> type = Class.forName(PACKAGE + "." + root, true, classLoader);
+            try (Stream<Path> files = Files.walk(folder)) {
+                files.sorted(Comparator.reverseOrder()).forEach(file -> file.toFile().deleteOnExit());
+            }
+            return type;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } catch (ClassNotFoundException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
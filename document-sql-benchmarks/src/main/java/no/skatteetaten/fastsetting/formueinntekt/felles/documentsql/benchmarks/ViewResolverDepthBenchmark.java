@@ -0,0 +1,52 @@
+package no.skatteetaten.fastsetting.formueinntekt.felles.documentsql.benchmarks;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import no.skatteetaten.fastsetting.formueinntekt.felles.documentsql.api.JaxbHandler;
+import no.skatteetaten.fastsetting.formueinntekt.felles.documentsql.api.JaxbPathResolver;
+import no.skatteetaten.fastsetting.formueinntekt.felles.documentsql.api.PathElement;
+import no.skatteetaten.fastsetting.formueinntekt.felles.documentsql.api.SimpleViewResolver;
+import no.skatteetaten.fastsetting.formueinntekt.felles.documentsql.api.ViewResolver;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ViewResolverDepthBenchmark {
+
+    @Param({"25", "50", "100", "200", "400"})
+    public int depth;
+
+    @Param({"false", "true"})
+    public boolean list;
+
+    private Class<?> type;
+
+    private ViewResolver resolver;
+
+    @Setup
+    public void setUp() {
+        type = SampleModels.deep(depth, list);
+        resolver = new SimpleViewResolver(new JaxbPathResolver(JaxbHandler.ofJakarta()));
+    }
+
+    @Benchmark
+    public Map<List<List<PathElement>>, Map<List<PathElement>, Class<?>>> resolve() {
+        return resolver.resolve(type);
+    }
+}
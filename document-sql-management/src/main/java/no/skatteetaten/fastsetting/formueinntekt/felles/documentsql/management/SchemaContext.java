@@ -4,10 +4,13 @@ import java.util.Collections;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 import java.util.function.BiFunction;
 import java.util.function.BiPredicate;
 import java.util.function.Function;
 
+import no.skatteetaten.fastsetting.formueinntekt.felles.documentsql.api.CachingViewResolver;
 import no.skatteetaten.fastsetting.formueinntekt.felles.documentsql.api.CapitalizingNameResolver;
 import no.skatteetaten.fastsetting.formueinntekt.felles.documentsql.api.JdbcDispatcher;
 import no.skatteetaten.fastsetting.formueinntekt.felles.documentsql.api.JdbcDispatcherFactory;
@@ -15,6 +18,7 @@ import no.skatteetaten.fastsetting.formueinntekt.felles.documentsql.api.PathCont
 import no.skatteetaten.fastsetting.formueinntekt.felles.documentsql.api.PathElement;
 import no.skatteetaten.fastsetting.formueinntekt.felles.documentsql.api.SimpleViewResolver;
 import no.skatteetaten.fastsetting.formueinntekt.felles.documentsql.api.TableResolver;
+import no.skatteetaten.fastsetting.formueinntekt.felles.documentsql.api.ViewResolver;
 
 public class SchemaContext<T> {
 
@@ -28,6 +32,8 @@ public class SchemaContext<T> {
 
     private final boolean recreate;
 
+    private final ConcurrentMap<Function<Class<?>, Map<PathElement, PathContext>>, ViewResolver> viewResolvers = new ConcurrentHashMap<>();
+
     public SchemaContext(
         Class<?> type,
         String root,
@@ -78,7 +84,10 @@ public class SchemaContext<T> {
         BiFunction<Class<?>, String, List<List<PathElement>>> rootResolver
     ) {
         return JdbcDispatcher.of(factory)
-            .withViewResolver(new SimpleViewResolver(pathResolver, filter))
+            .withViewResolver(viewResolvers.computeIfAbsent(
+                pathResolver,
+                resolver -> new CachingViewResolver(new SimpleViewResolver(resolver, filter))
+            ))
             .withNameResolver(new CapitalizingNameResolver(length))
             .withTableResolver(tableResolver)
             .build(name, type, root == null ? Collections.emptyList() : rootResolver.apply(type, root));
@@ -6,10 +6,16 @@ import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
 import java.util.function.BiFunction;
 import java.util.function.Consumer;
 import java.util.function.Function;
@@ -21,6 +27,7 @@ import no.skatteetaten.fastsetting.formueinntekt.felles.documentsql.api.JdbcDisp
 import no.skatteetaten.fastsetting.formueinntekt.felles.documentsql.api.PathContext;
 import no.skatteetaten.fastsetting.formueinntekt.felles.documentsql.api.PathElement;
 import no.skatteetaten.fastsetting.formueinntekt.felles.documentsql.api.SimplePathResolver;
+import no.skatteetaten.fastsetting.formueinntekt.felles.documentsql.api.ThreadSupport;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -117,153 +124,220 @@ public class SchemaManager<T> {
 
     public JdbcDispatcher<T> create(String name, boolean force, Consumer<String> onForce) throws SQLException {
         SchemaContext<T> context = schemas.apply(name).orElseThrow(() -> new UnknownSchemaException(name));
-        boolean exists;
-        try (Connection conn = dataSource.getConnection()) {
-            try (PreparedStatement ps = conn.prepareStatement(
-                "INSERT INTO SCHEMA_GENERATION "
-                    + "(KEY_NAME, CLASS_NAME, ROOT_NAME, NAME_LENGTH, RESOLVER_ID) "
-                    + "SELECT ?, ?, ?, ?, ? "
-                    + factory.getBaseTable().map(table -> "FROM " + table + " ").orElse("")
-                    + "WHERE NOT EXISTS (SELECT KEY_NAME FROM SCHEMA_GENERATION WHERE KEY_NAME = ?)"
-            )) {
-                ps.setString(1, name);
-                ps.setString(2, context.getType().getName());
-                ps.setString(3, context.getRoot().orElse(null));
-                ps.setInt(4, length);
-                ps.setString(5, context.getResolverId());
-                ps.setString(6, name);
-                exists = ps.executeUpdate() == 0;
+        if (!register(name, context)) {
+            try {
+                if (!inspect(name, context)) {
+                    throw new IllegalStateException("Found no result for " + name);
+                }
+            } catch (SchemaConsistencyException e) {
+                if (force) {
+                    LOGGER.info("Replacing altered schema for {}: {}", name, e.getMessage());
+                    context.toDispatcher(name, e.getLength(), factory, pathResolver, rootResolver).drop(
+                        dataSource,
+                        LOGGER::debug,
+                        exception -> factory.checkError(false, exception)
+                    );
+                    onForce.accept(name);
+                    LOGGER.info("Successfully removed outdated schema for {} - starting recreation", name);
+                    JdbcDispatcher<T> dispatcher = context.toDispatcher(name, length, factory, pathResolver, rootResolver);
+                    dispatcher.create(dataSource, users, LOGGER::debug);
+                    update(name, context);
+                    LOGGER.info("Completed schema updating for {}", name);
+                    return dispatcher;
+                } else if (e.isRecreation()) {
+                    throw new IllegalStateException("Recreation of " + name + " requires forcing enabled", e);
+                } else {
+                    throw new IllegalStateException("Schema for " + name + " has changed in a non-compatible manner", e);
+                }
             }
-            if (exists) {
-                try (PreparedStatement ps = conn.prepareStatement(
-                    "SELECT CLASS_NAME, ROOT_NAME, NAME_LENGTH, RESOLVER_ID "
-                        + "FROM SCHEMA_GENERATION "
-                        + "WHERE KEY_NAME = ?")
-                ) {
-                    ps.setString(1, name);
-                    try (ResultSet rs = ps.executeQuery()) {
-                        if (rs.next()) {
-                            assertConsistency(rs, name, context);
-                        } else {
-                            throw new IllegalStateException("Found no result for " + name);
+            LOGGER.info("Found existing schema for {}", name);
+            return context.toDispatcher(name, length, factory, pathResolver, rootResolver);
+        } else {
+            LOGGER.info("Creating schema for {} using {}, {}", name, context.getType(), context.getRoot());
+            try {
+                JdbcDispatcher<T> dispatcher = context.toDispatcher(name, length, factory, pathResolver, rootResolver);
+                try {
+                    dispatcher.create(dataSource, users, LOGGER::debug);
+                } catch (SQLException e) {
+                    if (force && factory.checkError(true, e)) {
+                        LOGGER.info("Found conflicting tables for {} - attempting to replace schema", name);
+                        try {
+                            dispatcher.drop(dataSource, LOGGER::debug, exception -> factory.checkError(false, exception));
+                        } catch (SQLException suppressed) {
+                            if (!factory.checkError(false, suppressed)) {
+                                e.addSuppressed(suppressed);
+                                throw e;
+                            }
                         }
-                    }
-                } catch (SchemaConsistencyException e) {
-                    if (force) {
-                        LOGGER.info("Replacing altered schema for {}: {}", name, e.getMessage());
-                        context.toDispatcher(name, e.getLength(), factory, pathResolver, rootResolver).drop(
-                            dataSource,
-                            LOGGER::debug,
-                            exception -> factory.checkError(false, exception)
-                        );
                         onForce.accept(name);
-                        LOGGER.info("Successfully removed outdated schema for {} - starting recreation", name);
-                        JdbcDispatcher<T> dispatcher = context.toDispatcher(name, length, factory, pathResolver, rootResolver);
+                        LOGGER.info("Successfully removed conflicting schema for {} - starting recreation", name);
                         dispatcher.create(dataSource, users, LOGGER::debug);
-                        try (PreparedStatement ps = conn.prepareStatement(
-                            "UPDATE SCHEMA_GENERATION "
-                                + "SET CLASS_NAME = ?, ROOT_NAME = ?, NAME_LENGTH = ?, RESOLVER_ID = ? "
-                                + "WHERE KEY_NAME = ?"
-                        )) {
-                            ps.setString(1, context.getType().getName());
-                            ps.setString(2, context.getRoot().orElse(null));
-                            ps.setInt(3, length);
-                            ps.setString(4, context.getResolverId());
-                            ps.setString(5, name);
-                            if (ps.executeUpdate() == 0) {
-                                throw new IllegalStateException("Could not update schema context for " + name);
-                            }
-                        }
-                        LOGGER.info("Completed schema updating for {}", name);
-                        return dispatcher;
-                    } else if (e.isRecreation()) {
-                        throw new IllegalStateException("Recreation of " + name + " requires forcing enabled", e);
+                        LOGGER.info("Completed schema recreation for {}", name);
                     } else {
-                        throw new IllegalStateException("Schema for " + name + " has changed in a non-compatible manner", e);
+                        throw e;
                     }
                 }
-                LOGGER.info("Found existing schema for {}", name);
-                return context.toDispatcher(name, length, factory, pathResolver, rootResolver);
-            } else {
-                LOGGER.info("Creating schema for {} using {}, {}", name, context.getType(), context.getRoot());
-                try {
-                    JdbcDispatcher<T> dispatcher = context.toDispatcher(name, length, factory, pathResolver, rootResolver);
-                    try {
-                        dispatcher.create(dataSource, users, LOGGER::debug);
-                    } catch (SQLException e) {
-                        if (force && factory.checkError(true, e)) {
-                            LOGGER.info("Found conflicting tables for {} - attempting to replace schema", name);
-                            try {
-                                dispatcher.drop(dataSource, LOGGER::debug, exception -> factory.checkError(false, exception));
-                            } catch (SQLException suppressed) {
-                                if (!factory.checkError(false, suppressed)) {
-                                    e.addSuppressed(suppressed);
-                                    throw e;
-                                }
-                            }
-                            onForce.accept(name);
-                            LOGGER.info("Successfully removed conflicting schema for {} - starting recreation", name);
-                            dispatcher.create(dataSource, users, LOGGER::debug);
-                            LOGGER.info("Completed schema recreation for {}", name);
-                        } else {
-                            throw e;
-                        }
-                    }
-                    return dispatcher;
-                } catch (Throwable throwable) {
-                    try (PreparedStatement ps = conn.prepareStatement(
-                        "DELETE "
-                            + "FROM SCHEMA_GENERATION "
-                            + "WHERE KEY_NAME = ?"
-                    )) {
-                        ps.setString(1, name);
-                        if (ps.executeUpdate() == 1) {
-                            LOGGER.warn("Deleted {} after schema creation error", name, throwable);
-                        }
-                    }
-                    throw new IllegalStateException("Failed schema creation for " + name, throwable);
+                return dispatcher;
+            } catch (Throwable throwable) {
+                if (unregister(name)) {
+                    LOGGER.warn("Deleted {} after schema creation error", name, throwable);
                 }
+                throw new IllegalStateException("Failed schema creation for " + name, throwable);
             }
         }
     }
 
-    public boolean drop(String name) throws SQLException {
-        SchemaContext<T> context = schemas.apply(name).orElseThrow(() -> new UnknownSchemaException(name));
-        try (Connection conn = dataSource.getConnection()) {
-            boolean exists;
-            try (PreparedStatement ps = conn.prepareStatement(
+    private boolean register(String name, SchemaContext<T> context) throws SQLException {
+        try (
+            Connection conn = dataSource.getConnection();
+            PreparedStatement ps = conn.prepareStatement(
+                "INSERT INTO SCHEMA_GENERATION "
+                    + "(KEY_NAME, CLASS_NAME, ROOT_NAME, NAME_LENGTH, RESOLVER_ID) "
+                    + "SELECT ?, ?, ?, ?, ? "
+                    + factory.getBaseTable().map(table -> "FROM " + table + " ").orElse("")
+                    + "WHERE NOT EXISTS (SELECT KEY_NAME FROM SCHEMA_GENERATION WHERE KEY_NAME = ?)"
+            )
+        ) {
+            ps.setString(1, name);
+            ps.setString(2, context.getType().getName());
+            ps.setString(3, context.getRoot().orElse(null));
+            ps.setInt(4, length);
+            ps.setString(5, context.getResolverId());
+            ps.setString(6, name);
+            return ps.executeUpdate() == 1;
+        }
+    }
+
+    private boolean inspect(String name, SchemaContext<T> context) throws SQLException {
+        try (
+            Connection conn = dataSource.getConnection();
+            PreparedStatement ps = conn.prepareStatement(
                 "SELECT CLASS_NAME, ROOT_NAME, NAME_LENGTH, RESOLVER_ID "
                     + "FROM SCHEMA_GENERATION "
                     + "WHERE KEY_NAME = ?"
-            )) {
-                ps.setString(1, name);
-                try (ResultSet rs = ps.executeQuery()) {
-                    if (rs.next()) {
-                        assertConsistency(rs, name, context);
-                        exists = true;
-                    } else {
-                        exists = false;
-                    }
+            )
+        ) {
+            ps.setString(1, name);
+            try (ResultSet rs = ps.executeQuery()) {
+                if (rs.next()) {
+                    assertConsistency(rs, name, context);
+                    return true;
+                } else {
+                    return false;
+                }
+            }
+        }
+    }
+
+    private void update(String name, SchemaContext<T> context) throws SQLException {
+        try (
+            Connection conn = dataSource.getConnection();
+            PreparedStatement ps = conn.prepareStatement(
+                "UPDATE SCHEMA_GENERATION "
+                    + "SET CLASS_NAME = ?, ROOT_NAME = ?, NAME_LENGTH = ?, RESOLVER_ID = ? "
+                    + "WHERE KEY_NAME = ?"
+            )
+        ) {
+            ps.setString(1, context.getType().getName());
+            ps.setString(2, context.getRoot().orElse(null));
+            ps.setInt(3, length);
+            ps.setString(4, context.getResolverId());
+            ps.setString(5, name);
+            if (ps.executeUpdate() == 0) {
+                throw new IllegalStateException("Could not update schema context for " + name);
+            }
+        }
+    }
+
+    private boolean unregister(String name) throws SQLException {
+        try (
+            Connection conn = dataSource.getConnection();
+            PreparedStatement ps = conn.prepareStatement(
+                "DELETE "
+                    + "FROM SCHEMA_GENERATION "
+                    + "WHERE KEY_NAME = ?"
+            )
+        ) {
+            ps.setString(1, name);
+            return ps.executeUpdate() == 1;
+        }
+    }
+
+    public Map<String, JdbcDispatcher<T>> createAll(Collection<String> names, int parallelism) throws SQLException {
+        return createAll(names, parallelism, false, forced -> {
+            throw new IllegalStateException("Did not expect forcing of " + forced);
+        });
+    }
+
+    public Map<String, JdbcDispatcher<T>> createAll(Collection<String> names, int parallelism, boolean force) throws SQLException {
+        return createAll(names, parallelism, force, forced -> { });
+    }
+
+    public Map<String, JdbcDispatcher<T>> createAll(
+        Collection<String> names,
+        int parallelism,
+        boolean force,
+        Consumer<String> onForce
+    ) throws SQLException {
+        if (parallelism < 1) {
+            throw new IllegalArgumentException("Parallelism must be positive: " + parallelism);
+        }
+        Set<String> unique = new LinkedHashSet<>(names);
+        for (String name : unique) {
+            schemas.apply(name).orElseThrow(() -> new UnknownSchemaException(name));
+        }
+        Map<String, JdbcDispatcher<T>> dispatchers = new LinkedHashMap<>();
+        Map<String, Throwable> failures = new LinkedHashMap<>();
+        if (parallelism == 1 || unique.size() < 2) {
+            for (String name : unique) {
+                try {
+                    dispatchers.put(name, create(name, force, onForce));
+                } catch (SQLException | RuntimeException e) {
+                    failures.put(name, e);
                 }
             }
-            if (exists) {
-                LOGGER.info("Dropping schema for {} using {}, {}", name, context.getType(), context.getRoot());
-                JdbcDispatcher<?> dispatcher = context.toDispatcher(name, length, factory, pathResolver, rootResolver);
-                dispatcher.drop(dataSource, LOGGER::debug, exception -> factory.checkError(false, exception));
-                try (PreparedStatement ps = conn.prepareStatement(
-                    "DELETE "
-                        + "FROM SCHEMA_GENERATION "
-                        + "WHERE KEY_NAME = ?"
-                )) {
-                    ps.setString(1, name);
-                    if (ps.executeUpdate() == 0) {
-                        throw new IllegalStateException("Schema for " + name + " seems to be deleted already");
+        } else {
+            ExecutorService executorService = ThreadSupport.newExecutor(Math.min(parallelism, unique.size()));
+            try {
+                Map<String, Future<JdbcDispatcher<T>>> futures = new LinkedHashMap<>();
+                for (String name : unique) {
+                    futures.put(name, executorService.submit(() -> create(name, force, onForce)));
+                }
+                for (Map.Entry<String, Future<JdbcDispatcher<T>>> entry : futures.entrySet()) {
+                    try {
+                        dispatchers.put(entry.getKey(), entry.getValue().get());
+                    } catch (ExecutionException e) {
+                        failures.put(entry.getKey(), e.getCause());
                     }
                 }
-                return true;
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Interrupted during schema creation for " + unique, e);
+            } finally {
+                executorService.shutdownNow();
+            }
+        }
+        if (!failures.isEmpty()) {
+            LOGGER.warn("Created {} of {} schemas, failed for {}", dispatchers.size(), unique.size(), failures.keySet());
+            IllegalStateException exception = new IllegalStateException("Failed schema creation for " + failures.keySet());
+            failures.values().forEach(exception::addSuppressed);
+            throw exception;
+        }
+        return dispatchers;
+    }
+
+    public boolean drop(String name) throws SQLException {
+        SchemaContext<T> context = schemas.apply(name).orElseThrow(() -> new UnknownSchemaException(name));
+        if (inspect(name, context)) {
+            LOGGER.info("Dropping schema for {} using {}, {}", name, context.getType(), context.getRoot());
+            JdbcDispatcher<?> dispatcher = context.toDispatcher(name, length, factory, pathResolver, rootResolver);
+            dispatcher.drop(dataSource, LOGGER::debug, exception -> factory.checkError(false, exception));
+            if (!unregister(name)) {
+                throw new IllegalStateException("Schema for " + name + " seems to be deleted already");
             }
-            return false;
+            return true;
         }
+        return false;
     }
 
     private void assertConsistency(ResultSet rs, String name, SchemaContext<?> context) throws SQLException {
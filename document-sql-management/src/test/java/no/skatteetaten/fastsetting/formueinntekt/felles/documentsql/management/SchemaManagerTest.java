@@ -6,6 +6,7 @@ import static org.assertj.core.api.Assertions.assertThatThrownBy;
 import java.sql.Connection;
 import java.sql.ResultSet;
 import java.sql.Statement;
+import java.util.Arrays;
 import java.util.HashMap;
 import java.util.Map;
 
@@ -94,6 +95,45 @@ public class SchemaManagerTest {
         assertThat(schemaManager.drop("foo")).isFalse();
     }
 
+    @Test
+    public void can_create_schemas_concurrently() throws Exception {
+        schemas.put("foo", new SchemaContext<>(SimpleSample.class, "sample", SimpleTableResolver.ofString()));
+        schemas.put("bar", new SchemaContext<>(SimpleSample.class, "sample", SimpleTableResolver.ofString()));
+        schemas.put("qux", new SchemaContext<>(SimpleSample.class, "sample", SimpleTableResolver.ofString()));
+
+        try (Connection conn = dataSource.getConnection(); Statement stmt = conn.createStatement()) {
+            stmt.execute("CREATE TABLE QUX_RAW (DUMMY CHAR(1))");
+        }
+
+        assertThatThrownBy(() -> schemaManager.createAll(Arrays.asList("foo", "bar", "qux"), 3))
+            .isInstanceOf(IllegalStateException.class)
+            .satisfies(exception -> assertThat(exception.getSuppressed()).hasSize(1));
+
+        Map<String, JdbcDispatcher<String>> dispatchers = schemaManager.createAll(Arrays.asList("foo", "bar"), 2);
+        assertThat(dispatchers).containsOnlyKeys("foo", "bar");
+
+        assertThat(schemaManager.drop("bar")).isTrue();
+
+        assertThatThrownBy(() -> schemaManager.createAll(Arrays.asList("qux", "bar"), 1))
+            .isInstanceOf(IllegalStateException.class)
+            .satisfies(exception -> assertThat(exception.getSuppressed()).hasSize(1));
+
+        dispatchers = schemaManager.createAll(Arrays.asList("foo", "bar"), 1);
+        assertThat(dispatchers).containsOnlyKeys("foo", "bar");
+
+        try (Connection conn = dataSource.getConnection()) {
+            dispatchers.get("bar").insert(conn, "X", 1, "<sample><val>bar</val></sample>");
+        }
+
+        assertThat(schemaManager.drop("foo")).isTrue();
+        assertThat(schemaManager.drop("bar")).isTrue();
+        assertThat(schemaManager.drop("qux")).isFalse();
+
+        try (Connection conn = dataSource.getConnection(); Statement stmt = conn.createStatement()) {
+            stmt.execute("DROP TABLE QUX_RAW");
+        }
+    }
+
     @Test
     public void can_create_schema_with_synonym() throws Exception {
         schemas.put("foo", new SchemaContext<>(SimpleSample.class, "sample", SimpleTableResolver.ofString()));
@@ -2,44 +2,70 @@ package no.skatteetaten.fastsetting.formueinntekt.felles.documentsql.oracle;
 
 import javax.sql.DataSource;
 import no.skatteetaten.fastsetting.formueinntekt.felles.documentsql.api.JdbcDispatcher;
+import no.skatteetaten.fastsetting.formueinntekt.felles.documentsql.api.RetentionSupport;
 import no.skatteetaten.fastsetting.formueinntekt.felles.documentsql.api.RevisionedId;
 import no.skatteetaten.fastsetting.formueinntekt.felles.documentsql.api.TableResolver;
 
+import java.io.IOException;
+import java.io.StringReader;
 import java.sql.Clob;
 import java.sql.Connection;
 import java.sql.PreparedStatement;
+import java.sql.ResultSet;
 import java.sql.SQLException;
+import java.sql.Savepoint;
 import java.sql.Statement;
 import java.sql.Types;
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Locale;
 import java.util.Map;
 import java.util.function.Consumer;
 import java.util.function.Function;
+import java.util.function.LongConsumer;
 import java.util.function.Predicate;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
 class OracleDispatcher<T> implements JdbcDispatcher<T> {
 
-    private final List<String> create, drop, grant;
+    private static final int UNIQUE_VIOLATION = 1;
+
+    private static final int APPEND_ATTEMPTS = 10;
+
+    private final List<String> create, drop, grant, retain, truncate, addPartition, dropPartition, detachPartition;
     private final Map<String, String> overrides;
-    private final String insert, truncate;
+    private final String insert, insertIfAbsent, append, partitionType, partitionBound;
 
     private final TableResolver<T> resolver;
 
     OracleDispatcher(
         List<String> create, List<String> drop, List<String> grant,
         Map<String, String> overrides,
-        String insert, String truncate, TableResolver<T> resolver
+        String insert, String insertIfAbsent, String append, List<String> truncate,
+        List<String> retain,
+        List<String> addPartition, List<String> dropPartition, List<String> detachPartition,
+        String partitionType, String partitionBound,
+        TableResolver<T> resolver
     ) {
         this.create = create;
         this.drop = drop;
         this.grant = grant;
         this.overrides = overrides;
         this.insert = insert;
+        this.insertIfAbsent = insertIfAbsent;
+        this.append = append;
         this.truncate = truncate;
+        this.retain = retain;
+        this.addPartition = addPartition;
+        this.dropPartition = dropPartition;
+        this.detachPartition = detachPartition;
+        this.partitionType = partitionType;
+        this.partitionBound = partitionBound;
         this.resolver = resolver;
     }
 
@@ -56,8 +82,20 @@ class OracleDispatcher<T> implements JdbcDispatcher<T> {
             grant.stream().map(statement -> asExecutableStatement(String.format(statement, "[users]"))),
             Stream.of("-- insert"),
             Stream.of(asExecutableStatement(insert)),
+            Stream.of("-- insert if absent"),
+            Stream.of(asExecutableStatement(insertIfAbsent)),
+            Stream.of("-- append"),
+            Stream.of(asExecutableStatement(append)),
             Stream.of("-- truncate"),
-            Stream.of(asExecutableStatement(truncate)),
+            truncate.stream().map(OracleDispatcher::asExecutableStatement),
+            Stream.of("-- retain"),
+            retain.stream().map(OracleDispatcher::asExecutableStatement),
+            addPartition.isEmpty() ? Stream.<String>empty() : Stream.of("-- add partition"),
+            addPartition.stream().map(statement -> asExecutableStatement(String.format(statement, "[partition]", "[from]", "[to]"))),
+            dropPartition.isEmpty() ? Stream.<String>empty() : Stream.of("-- drop partition"),
+            dropPartition.stream().map(statement -> asExecutableStatement(String.format(statement, "[partition]"))),
+            detachPartition.isEmpty() ? Stream.<String>empty() : Stream.of("-- detach partition"),
+            detachPartition.stream().map(statement -> asExecutableStatement(String.format(statement, "[partition]"))),
             Stream.of("-- drop"),
             drop.stream().map(OracleDispatcher::asExecutableStatement)
         ).flatMap(Function.identity()).collect(Collectors.toList()));
@@ -136,19 +174,7 @@ class OracleDispatcher<T> implements JdbcDispatcher<T> {
         List<Clob> clobs = new ArrayList<>(payloads.size());
         try (PreparedStatement ps = conn.prepareStatement(insert)) {
             for (Map.Entry<RevisionedId, T> payload : payloads.entrySet()) {
-                ps.setString(1, payload.getKey().getId());
-                ps.setLong(2, payload.getKey().getRevision());
-                ps.setBoolean(3, payload.getKey().isDeleted());
-                String value = resolver.toPayload(payload.getValue());
-                if (value == null) {
-                    ps.setNull(4, Types.CLOB);
-                } else {
-                    Clob clob = conn.createClob();
-                    clobs.add(clob);
-                    clob.setString(1, value);
-                    ps.setClob(4, clob);
-                }
-                resolver.registerAdditionalValues(5, ps, payload.getValue());
+                bind(conn, ps, payload.getKey(), payload.getValue(), clobs);
                 if (payloads.size() == 1) {
                     ps.executeUpdate();
                 } else {
@@ -159,16 +185,264 @@ class OracleDispatcher<T> implements JdbcDispatcher<T> {
                 ps.executeBatch();
             }
         } finally {
-            for (Clob clob : clobs) {
-                clob.free();
+            free(clobs);
+        }
+    }
+
+    @Override
+    public Map<RevisionedId, Boolean> insertIfAbsent(Connection conn, Map<RevisionedId, T> payloads) throws SQLException {
+        if (payloads.isEmpty()) {
+            return Collections.emptyMap();
+        }
+        List<Clob> clobs = new ArrayList<>(payloads.size());
+        int[] counts;
+        try (PreparedStatement ps = conn.prepareStatement(insertIfAbsent)) {
+            for (Map.Entry<RevisionedId, T> payload : payloads.entrySet()) {
+                bind(conn, ps, payload.getKey(), payload.getValue(), clobs);
+                ps.addBatch();
             }
+            counts = ps.executeBatch();
+        } finally {
+            free(clobs);
         }
+        Map<RevisionedId, Boolean> inserted = new LinkedHashMap<>();
+        int index = 0;
+        for (RevisionedId id : payloads.keySet()) {
+            if (counts[index] == Statement.SUCCESS_NO_INFO) {
+                throw new IllegalStateException("Driver did not report if " + id + " was inserted");
+            }
+            inserted.put(id, counts[index++] > 0);
+        }
+        return inserted;
+    }
+
+    @Override
+    public List<RevisionedId> append(Connection conn, Map<String, T> payloads, boolean deleted) throws SQLException {
+        if (payloads.isEmpty()) {
+            return Collections.emptyList();
+        } else if (conn.getTransactionIsolation() > Connection.TRANSACTION_READ_COMMITTED) {
+            throw new IllegalStateException("Appending requires read committed isolation to observe concurrently allocated revisions");
+        }
+        boolean autoCommit = conn.getAutoCommit();
+        conn.setAutoCommit(false);
+        try {
+            for (int attempt = 1; ; attempt++) {
+                Savepoint savepoint = autoCommit ? null : conn.setSavepoint();
+                List<Clob> clobs = new ArrayList<>();
+                try {
+                    List<RevisionedId> ids = new ArrayList<>(payloads.size());
+                    try (PreparedStatement ps = conn.prepareStatement(append, new String[] {"REVISION"})) {
+                        for (Map.Entry<String, T> payload : payloads.entrySet()) {
+                            ps.setString(1, payload.getKey());
+                            ps.setString(2, payload.getKey());
+                            bindPayload(conn, ps, new RevisionedId(payload.getKey(), 0, deleted), payload.getValue(), clobs);
+                            ps.executeUpdate();
+                            try (ResultSet rs = ps.getGeneratedKeys()) {
+                                if (!rs.next()) {
+                                    throw new IllegalStateException("Driver did not return allocated revision for " + payload.getKey());
+                                }
+                                ids.add(new RevisionedId(payload.getKey(), rs.getLong(1), deleted));
+                            }
+                            free(clobs);
+                        }
+                    }
+                    if (autoCommit) {
+                        conn.commit();
+                    }
+                    return ids;
+                } catch (SQLException e) {
+                    if (autoCommit) {
+                        conn.rollback();
+                    } else {
+                        conn.rollback(savepoint);
+                    }
+                    if (attempt == APPEND_ATTEMPTS || e.getErrorCode() != UNIQUE_VIOLATION) {
+                        throw e;
+                    }
+                } finally {
+                    free(clobs);
+                }
+            }
+        } finally {
+            conn.setAutoCommit(autoCommit);
+        }
+    }
+
+    @Override
+    public void insertAll(Connection conn, Iterator<Map.Entry<RevisionedId, T>> payloads, int batchSize) throws SQLException {
+        if (batchSize < 1) {
+            throw new IllegalArgumentException("Batch size must be positive: " + batchSize);
+        }
+        List<Clob> clobs = new ArrayList<>(Math.min(batchSize, 1000));
+        try (PreparedStatement ps = conn.prepareStatement(insert)) {
+            int count = 0;
+            while (payloads.hasNext()) {
+                Map.Entry<RevisionedId, T> payload = payloads.next();
+                bind(conn, ps, payload.getKey(), payload.getValue(), clobs);
+                ps.addBatch();
+                if (++count == batchSize) {
+                    ps.executeBatch();
+                    free(clobs);
+                    count = 0;
+                }
+            }
+            if (count > 0) {
+                ps.executeBatch();
+            }
+        } finally {
+            free(clobs);
+        }
+    }
+
+    private void bind(Connection conn, PreparedStatement ps, RevisionedId id, T value, List<Clob> clobs) throws SQLException {
+        ps.setString(1, id.getId());
+        ps.setLong(2, id.getRevision());
+        bindPayload(conn, ps, id, value, clobs);
+    }
+
+    private void bindPayload(Connection conn, PreparedStatement ps, RevisionedId id, T value, List<Clob> clobs) throws SQLException {
+        ps.setBoolean(3, id.isDeleted());
+        if (resolver.isStreaming()) {
+            if (value == null) {
+                ps.setNull(4, Types.CLOB);
+            } else {
+                OraclePayloadWriter writer = new OraclePayloadWriter(conn, clobs);
+                try (writer) {
+                    resolver.writePayload(value, writer);
+                } catch (IOException e) {
+                    if (e.getCause() instanceof SQLException) {
+                        throw (SQLException) e.getCause();
+                    }
+                    throw new SQLException("Failed to write payload for " + id, e);
+                }
+                if (writer.getClob() == null) {
+                    ps.setString(4, writer.getInline());
+                } else {
+                    ps.setClob(4, writer.getClob());
+                }
+            }
+        } else {
+            String payload = resolver.toPayload(value);
+            if (payload == null) {
+                ps.setNull(4, Types.CLOB);
+            } else if (payload.length() <= OraclePayloadWriter.INLINE_LIMIT / 3
+                || OraclePayloadWriter.length(payload) <= OraclePayloadWriter.INLINE_LIMIT) {
+                ps.setString(4, payload);
+            } else {
+                ps.setCharacterStream(4, new StringReader(payload), payload.length());
+            }
+        }
+        resolver.registerAdditionalValues(5, ps, value);
+    }
+
+    private static void free(List<Clob> clobs) throws SQLException {
+        for (Clob clob : clobs) {
+            clob.free();
+        }
+        clobs.clear();
     }
 
     @Override
     public void truncate(DataSource dataSource) throws SQLException {
         try (Connection conn = dataSource.getConnection(); Statement stmt = conn.createStatement()) {
-            stmt.execute(truncate);
+            for (String sql : truncate) {
+                stmt.execute(sql);
+            }
+        }
+    }
+
+    @Override
+    public long retain(DataSource dataSource, int revisions, int chunk, LongConsumer progress) throws SQLException {
+        return RetentionSupport.retain(dataSource, retain.get(0), retain.get(1), retain.get(2), revisions, chunk, progress);
+    }
+
+    @Override
+    public void addPartition(DataSource dataSource, String partition, String from, String to) throws SQLException {
+        List<String> statements = toPartitionStatements(addPartition, partition, from == null ? null : toBound(from), toBound(to));
+        try (Connection conn = dataSource.getConnection()) {
+            if (from != null) {
+                String previous;
+                try (Statement stmt = conn.createStatement(); ResultSet rs = stmt.executeQuery(partitionBound)) {
+                    if (!rs.next()) {
+                        throw new IllegalArgumentException("Cannot bound first partition from below: " + from);
+                    }
+                    previous = rs.getString(1);
+                }
+                try (
+                    Statement stmt = conn.createStatement();
+                    ResultSet rs = stmt.executeQuery("SELECT COUNT(*) FROM DUAL WHERE " + toBound(from) + " = " + previous)
+                ) {
+                    if (!rs.next() || rs.getInt(1) == 0) {
+                        throw new IllegalArgumentException("Lower bound " + from + " does not match upper bound of previous partition: " + previous);
+                    }
+                }
+            }
+            execute(conn, statements);
+        }
+    }
+
+    @Override
+    public void dropPartition(DataSource dataSource, String partition) throws SQLException {
+        execute(dataSource, toPartitionStatements(dropPartition, partition));
+    }
+
+    @Override
+    public void detachPartition(DataSource dataSource, String partition) throws SQLException {
+        execute(dataSource, toPartitionStatements(detachPartition, partition));
+    }
+
+    private String toBound(String bound) {
+        if (partitionType == null) {
+            throw new IllegalStateException("Dispatcher is not partitioned");
+        }
+        String type = partitionType.toUpperCase(Locale.ROOT);
+        if (bound == null) {
+            throw new IllegalArgumentException("Partition bound must be specified");
+        } else if (type.startsWith("DATE")) {
+            if (!bound.matches("[0-9]{4}-[0-9]{2}-[0-9]{2}")) {
+                throw new IllegalArgumentException("Illegal date bound: " + bound);
+            }
+            return "DATE '" + bound + "'";
+        } else if (type.startsWith("TIMESTAMP")) {
+            if (!bound.matches("[0-9]{4}-[0-9]{2}-[0-9]{2} [0-9]{2}:[0-9]{2}:[0-9]{2}(\\.[0-9]+)?")) {
+                throw new IllegalArgumentException("Illegal timestamp bound: " + bound);
+            }
+            return "TIMESTAMP '" + bound + "'";
+        } else if (type.matches("(NUMBER|NUMERIC|DECIMAL|INTEGER|INT|SMALLINT|FLOAT|BINARY_FLOAT|BINARY_DOUBLE)\\b.*")) {
+            if (!bound.matches("-?[0-9]+(\\.[0-9]+)?")) {
+                throw new IllegalArgumentException("Illegal numeric bound: " + bound);
+            }
+            return bound;
+        } else {
+            return "'" + bound.replace("'", "''") + "'";
+        }
+    }
+
+    private static List<String> toPartitionStatements(List<String> statements, String partition, Object... bounds) {
+        if (statements.isEmpty()) {
+            throw new IllegalStateException("Dispatcher is not partitioned");
+        } else if (!partition.matches("[A-Za-z0-9_]+")) {
+            throw new IllegalArgumentException("Illegal partition name: " + partition);
+        }
+        Object[] arguments = Stream.concat(Stream.of(partition), Stream.of(bounds)).toArray();
+        return statements.stream().map(statement -> String.format(statement, arguments)).collect(Collectors.toList());
+    }
+
+    private static void execute(DataSource dataSource, List<String> statements) throws SQLException {
+        try (Connection conn = dataSource.getConnection()) {
+            execute(conn, statements);
+        }
+    }
+
+    private static void execute(Connection conn, List<String> statements) throws SQLException {
+        try (Statement stmt = conn.createStatement()) {
+            for (String sql : statements) {
+                try {
+                    stmt.execute(sql);
+                } catch (SQLException e) {
+                    throw new SQLException("Failed to execute: " + sql, e.getSQLState(), e.getErrorCode(), e);
+                }
+            }
         }
     }
 }
@@ -41,7 +41,9 @@ public class OracleDispatcherFactory implements JdbcDispatcherFactory {
     private final Function<Class<?>, String> typeResolver;
     private final Function<Set<String>, Map<String, String>> namespacePrefixResolver;
 
-    private final boolean audit, meta, synonym, grantViewOnDummy;
+    private final String partitioning;
+
+    private final boolean audit, meta, synonym, grantViewOnDummy, binaryXml, currentTable;
 
     private final Function<String, List<String>> onCreation, onDrop;
 
@@ -49,18 +51,22 @@ public class OracleDispatcherFactory implements JdbcDispatcherFactory {
         OracleSqlEmitter emitter,
         Function<Set<String>, Map<String, String>> namespacePrefixResolver,
         Function<Class<?>, String> typeResolver,
-        boolean audit, boolean meta, boolean synonym, boolean grantViewOnDummy,
+        String partitioning,
+        boolean audit, boolean meta, boolean synonym, boolean grantViewOnDummy, boolean binaryXml, boolean currentTable,
         Function<String, List<String>> onCreation, Function<String, List<String>> onDrop
     ) {
         this.emitter = emitter;
         this.namespacePrefixResolver = namespacePrefixResolver;
         this.typeResolver = typeResolver;
+        this.partitioning = partitioning;
         this.onCreation = onCreation;
         this.onDrop = onDrop;
         this.audit = audit;
         this.meta = meta;
         this.synonym = synonym;
         this.grantViewOnDummy = grantViewOnDummy;
+        this.binaryXml = binaryXml;
+        this.currentTable = currentTable;
     }
 
     public static OracleDispatcherFactory ofXml() {
@@ -77,37 +83,60 @@ public class OracleDispatcherFactory implements JdbcDispatcherFactory {
         });
     }
 
+    public static OracleDispatcherFactory ofNativeJson() {
+        return of(OracleSqlEmitter.NATIVE_JSON, namespace -> {
+            throw new IllegalStateException("Unexpected resolution of namespace " + namespace + " during JSON processing");
+        });
+    }
+
     private static OracleDispatcherFactory of(OracleSqlEmitter emitter, Function<Set<String>, Map<String, String>> namespacePrefixResolver) {
         return new OracleDispatcherFactory(
             emitter, namespacePrefixResolver, new OracleTypeResolver(true),
-            false, true, false, false,
+            null,
+            false, true, false, false, false, false,
             base -> Collections.emptyList(), base -> Collections.emptyList()
         );
     }
 
     public OracleDispatcherFactory withTypeResolver(Function<Class<?>, String> typeResolver) {
-        return new OracleDispatcherFactory(emitter, namespacePrefixResolver, typeResolver, audit, meta, synonym, grantViewOnDummy, onCreation, onDrop);
+        return new OracleDispatcherFactory(emitter, namespacePrefixResolver, typeResolver, partitioning, audit, meta, synonym, grantViewOnDummy, binaryXml, currentTable, onCreation, onDrop);
     }
 
     public OracleDispatcherFactory withAudit(boolean audit) {
-        return new OracleDispatcherFactory(emitter, namespacePrefixResolver, typeResolver, audit, meta, synonym, grantViewOnDummy, onCreation, onDrop);
+        return new OracleDispatcherFactory(emitter, namespacePrefixResolver, typeResolver, partitioning, audit, meta, synonym, grantViewOnDummy, binaryXml, currentTable, onCreation, onDrop);
     }
 
     public OracleDispatcherFactory withMeta(boolean meta) {
-        return new OracleDispatcherFactory(emitter, namespacePrefixResolver, typeResolver, audit, meta, synonym, grantViewOnDummy, onCreation, onDrop);
+        return new OracleDispatcherFactory(emitter, namespacePrefixResolver, typeResolver, partitioning, audit, meta, synonym, grantViewOnDummy, binaryXml, currentTable, onCreation, onDrop);
     }
 
     public OracleDispatcherFactory withSynonym(boolean synonym) {
-        return new OracleDispatcherFactory(emitter, namespacePrefixResolver, typeResolver, audit, meta, synonym, grantViewOnDummy, onCreation, onDrop);
+        return new OracleDispatcherFactory(emitter, namespacePrefixResolver, typeResolver, partitioning, audit, meta, synonym, grantViewOnDummy, binaryXml, currentTable, onCreation, onDrop);
     }
 
     public OracleDispatcherFactory withGrantViewOnDummy(boolean grantViewOnDummy) {
-        return new OracleDispatcherFactory(emitter, namespacePrefixResolver, typeResolver, audit, meta, synonym, grantViewOnDummy, onCreation, onDrop);
+        return new OracleDispatcherFactory(emitter, namespacePrefixResolver, typeResolver, partitioning, audit, meta, synonym, grantViewOnDummy, binaryXml, currentTable, onCreation, onDrop);
+    }
+
+    public OracleDispatcherFactory withBinaryXml(boolean binaryXml) {
+        if (binaryXml && emitter != OracleSqlEmitter.XML) {
+            throw new IllegalStateException("Binary XML storage is only applicable to XML documents");
+        }
+        return new OracleDispatcherFactory(emitter, namespacePrefixResolver, typeResolver, partitioning, audit, meta, synonym, grantViewOnDummy, binaryXml, currentTable, onCreation, onDrop);
+    }
+
+    public OracleDispatcherFactory withCurrentTable(boolean currentTable) {
+        return new OracleDispatcherFactory(emitter, namespacePrefixResolver, typeResolver, partitioning, audit, meta, synonym, grantViewOnDummy, binaryXml, currentTable, onCreation, onDrop);
+    }
+
+
+    public OracleDispatcherFactory withPartitioning(String partitioning) {
+        return new OracleDispatcherFactory(emitter, namespacePrefixResolver, typeResolver, partitioning, audit, meta, synonym, grantViewOnDummy, binaryXml, currentTable, onCreation, onDrop);
     }
 
     @Override
     public OracleDispatcherFactory withOnCreation(Function<String, Collection<String>> onCreation) {
-        return new OracleDispatcherFactory(emitter, namespacePrefixResolver, typeResolver, audit, meta, synonym, grantViewOnDummy, base -> Stream.concat(
+        return new OracleDispatcherFactory(emitter, namespacePrefixResolver, typeResolver, partitioning, audit, meta, synonym, grantViewOnDummy, binaryXml, currentTable, base -> Stream.concat(
             this.onCreation.apply(base).stream(),
             onCreation.apply(base).stream()
         ).collect(Collectors.toList()), onDrop);
@@ -115,7 +144,7 @@ public class OracleDispatcherFactory implements JdbcDispatcherFactory {
 
     @Override
     public OracleDispatcherFactory withOnDrop(Function<String, Collection<String>> onDrop) {
-        return new OracleDispatcherFactory(emitter, namespacePrefixResolver, typeResolver, audit, meta, synonym, grantViewOnDummy, onCreation, base -> Stream.concat(
+        return new OracleDispatcherFactory(emitter, namespacePrefixResolver, typeResolver, partitioning, audit, meta, synonym, grantViewOnDummy, binaryXml, currentTable, onCreation, base -> Stream.concat(
             this.onDrop.apply(base).stream(),
             onDrop.apply(base).stream()
         ).collect(Collectors.toList()));
@@ -132,6 +161,8 @@ public class OracleDispatcherFactory implements JdbcDispatcherFactory {
         Map<String, String> objects = new LinkedHashMap<>();
         Map<String, Integer> viewIndices = new HashMap<>();
         List<String> ddl = new ArrayList<>();
+        // Partitioning by another column than REVISION keeps the primary key global such that (ID, REVISION) remains
+        // unique across partitions. Partition maintenance then updates this index rather than dropping a local segment.
         ddl.add("CREATE TABLE " + base + "_RAW ("
             + ID + " VARCHAR2(250) NOT NULL, "
             + REVISION + " NUMBER(19) NOT NULL, "
@@ -140,34 +171,101 @@ public class OracleDispatcherFactory implements JdbcDispatcherFactory {
             + tableResolver.getAdditionalColumns().entrySet().stream()
             .map(entry -> entry.getKey() + " " + entry.getValue() + ", ")
             .collect(Collectors.joining())
-            + "CONSTRAINT " + base + "_PK PRIMARY KEY (" + ID + ", " + REVISION + "))");
+            + "CONSTRAINT " + base + "_PK PRIMARY KEY (" + ID + ", " + REVISION
+            + (partitioning != null && partitioning.equals(REVISION) ? ") USING INDEX LOCAL" : ")") + ")"
+            + (binaryXml ? " XMLTYPE COLUMN " + PAYLOAD + " STORE AS SECUREFILE BINARY XML" : "")
+            + (partitioning == null ? "" : " PARTITION BY RANGE (" + partitioning + ") (PARTITION DEF VALUES LESS THAN (MAXVALUE))"));
         objects.put(base + "_RAW", "TABLE");
-        ddl.addAll(emitter.afterCreateTable(base));
+        if (partitioning != null && !partitioning.equals(REVISION) && !tableResolver.getAdditionalColumns().containsKey(partitioning)) {
+            throw new IllegalStateException("Cannot partition by unknown column: " + partitioning);
+        }
+        ddl.addAll(emitter.afterCreateTable(base, partitioning != null));
         Set<String> indices = new HashSet<>(Collections.singleton(base + "_IDX"));
         for (String column : tableResolver.getAdditionalColumns().keySet()) {
             String index = nameResolver.resolve(Arrays.asList(base, column), indices::contains);
             if (!indices.add(index)) {
                 throw new IllegalStateException("Index name already in use: " + index);
             }
-            ddl.add("CREATE INDEX " + index + "_IDX ON " + base + "_RAW (" + column + ")");
+            ddl.add("CREATE INDEX " + index + "_IDX ON " + base + "_RAW (" + column + ")" + (partitioning == null ? "" : " LOCAL"));
         }
-        for (String suffix : Arrays.asList("MIN", "MAX")) {
-            viewIndices.put(base + "_" + suffix, ddl.size());
-            ddl.add("CREATE VIEW " + base + "_" + suffix + " AS "
-                + "SELECT " + ID + ", " + suffix + "(" + REVISION + ") " + REVISION + " "
+        if (currentTable) {
+            ddl.add("CREATE TABLE " + base + "_CUR ("
+                + ID + " VARCHAR2(250) NOT NULL, "
+                + "MIN_" + REVISION + " NUMBER(19) NOT NULL, "
+                + REVISION + " NUMBER(19) NOT NULL, "
+                + DELETED + " NUMBER(1) NOT NULL, "
+                + "CONSTRAINT " + base + "_CPK PRIMARY KEY (" + ID + "))");
+            objects.put(base + "_CUR", "TABLE");
+            ddl.add("CREATE TRIGGER " + base + "_CRG "
+                + "FOR INSERT OR UPDATE OR DELETE ON " + base + "_RAW "
+                + "COMPOUND TRIGGER "
+                + "TYPE ID_SET IS TABLE OF NUMBER(1) INDEX BY VARCHAR2(250); "
+                + "IDS ID_SET; "
+                + "AFTER EACH ROW IS BEGIN "
+                + "IF INSERTING OR UPDATING THEN IDS(:NEW." + ID + ") := 1; END IF; "
+                + "IF DELETING OR UPDATING THEN IDS(:OLD." + ID + ") := 1; END IF; "
+                + "END AFTER EACH ROW; "
+                + "AFTER STATEMENT IS CURRENT_ID VARCHAR2(250) := IDS.FIRST; BEGIN "
+                + "WHILE CURRENT_ID IS NOT NULL LOOP "
+                + "FOR ATTEMPT IN 1 .. 2 LOOP "
+                + "BEGIN "
+                + "MERGE INTO " + base + "_CUR CURRENT_REVISION "
+                + "USING (SELECT " + ID + ", MIN(" + REVISION + ") MIN_" + REVISION + ", MAX(" + REVISION + ") " + REVISION + ", "
+                + "MAX(" + DELETED + ") KEEP (DENSE_RANK LAST ORDER BY " + REVISION + ") " + DELETED + " "
                 + "FROM " + base + "_RAW "
-                + "GROUP BY " + ID);
-            objects.put(base + "_" + suffix, "VIEW");
+                + "WHERE " + ID + " = CURRENT_ID "
+                + "GROUP BY " + ID + ") LATEST_REVISION "
+                + "ON (CURRENT_REVISION." + ID + " = LATEST_REVISION." + ID + ") "
+                + "WHEN MATCHED THEN UPDATE SET "
+                + "CURRENT_REVISION.MIN_" + REVISION + " = LATEST_REVISION.MIN_" + REVISION + ", "
+                + "CURRENT_REVISION." + REVISION + " = LATEST_REVISION." + REVISION + ", "
+                + "CURRENT_REVISION." + DELETED + " = LATEST_REVISION." + DELETED + " "
+                + "WHEN NOT MATCHED THEN INSERT (" + ID + ", MIN_" + REVISION + ", " + REVISION + ", " + DELETED + ") "
+                + "VALUES (LATEST_REVISION." + ID + ", LATEST_REVISION.MIN_" + REVISION + ", "
+                + "LATEST_REVISION." + REVISION + ", LATEST_REVISION." + DELETED + "); "
+                + "EXIT; "
+                + "EXCEPTION WHEN DUP_VAL_ON_INDEX THEN IF ATTEMPT = 2 THEN RAISE; END IF; "
+                + "END; "
+                + "END LOOP; "
+                + "DELETE FROM " + base + "_CUR "
+                + "WHERE " + ID + " = CURRENT_ID "
+                + "AND NOT EXISTS (SELECT 1 FROM " + base + "_RAW WHERE " + ID + " = CURRENT_ID); "
+                + "CURRENT_ID := IDS.NEXT(CURRENT_ID); "
+                + "END LOOP; "
+                + "IDS.DELETE; "
+                + "END AFTER STATEMENT; "
+                + "END " + base + "_CRG;");
+            for (String suffix : Arrays.asList("MIN", "MAX")) {
+                viewIndices.put(base + "_" + suffix, ddl.size());
+                ddl.add("CREATE VIEW " + base + "_" + suffix + " AS "
+                    + "SELECT " + ID + ", " + (suffix.equals("MIN") ? "MIN_" : "") + REVISION + " " + REVISION + " "
+                    + "FROM " + base + "_CUR");
+                objects.put(base + "_" + suffix, "VIEW");
+            }
+            viewIndices.put(base + "_NOW", ddl.size());
+            ddl.add("CREATE VIEW " + base + "_NOW AS "
+                + "SELECT " + ID + ", " + REVISION + " "
+                + "FROM " + base + "_CUR "
+                + "WHERE " + DELETED + " = 0");
+        } else {
+            for (String suffix : Arrays.asList("MIN", "MAX")) {
+                viewIndices.put(base + "_" + suffix, ddl.size());
+                ddl.add("CREATE VIEW " + base + "_" + suffix + " AS "
+                    + "SELECT " + ID + ", " + suffix + "(" + REVISION + ") " + REVISION + " "
+                    + "FROM " + base + "_RAW "
+                    + "GROUP BY " + ID);
+                objects.put(base + "_" + suffix, "VIEW");
+            }
+            viewIndices.put(base + "_NOW", ddl.size());
+            ddl.add("CREATE VIEW " + base + "_NOW AS "
+                + "SELECT " + ID + ", MAX(" + REVISION + ") " + REVISION + " "
+                + "FROM " + base + "_RAW "
+                + "GROUP BY " + ID + " "
+                + "INTERSECT "
+                + "SELECT " + ID + ", " + REVISION + " "
+                + "FROM " + base + "_RAW "
+                + "WHERE " + DELETED + " = 0");
         }
-        viewIndices.put(base + "_NOW", ddl.size());
-        ddl.add("CREATE VIEW " + base + "_NOW AS "
-            + "SELECT " + ID + ", MAX(" + REVISION + ") " + REVISION + " "
-            + "FROM " + base + "_RAW "
-            + "GROUP BY " + ID + " "
-            + "INTERSECT "
-            + "SELECT " + ID + ", " + REVISION + " "
-            + "FROM " + base + "_RAW "
-            + "WHERE " + DELETED + " = 0");
         objects.put(base + "_NOW", "VIEW");
         List<String> directColumns = Stream.concat(
             Stream.of(ID, REVISION, DELETED, PAYLOAD),
@@ -246,7 +344,28 @@ public class OracleDispatcherFactory implements JdbcDispatcherFactory {
         if (synonym) {
             objects.keySet().forEach(object -> ddl.add("CREATE PUBLIC SYNONYM " + object + " FOR " + object));
         }
+        List<String> repair = new ArrayList<>();
+        if (currentTable) {
+            repair.add("DELETE FROM " + base + "_CUR");
+            repair.add("INSERT INTO " + base + "_CUR (" + ID + ", MIN_" + REVISION + ", " + REVISION + ", " + DELETED + ") "
+                + "SELECT " + ID + ", MIN(" + REVISION + "), MAX(" + REVISION + "), "
+                + "MAX(" + DELETED + ") KEEP (DENSE_RANK LAST ORDER BY " + REVISION + ") "
+                + "FROM " + base + "_RAW "
+                + "GROUP BY " + ID);
+        }
+        objects.entrySet().stream()
+            .filter(entry -> entry.getValue().equals("MATERIALIZED VIEW"))
+            .forEach(entry -> repair.add("BEGIN DBMS_MVIEW.REFRESH('" + entry.getKey() + "', 'C'); END;"));
         ddl.addAll(onCreation.apply(base + "_RAW"));
+        String columns = Stream.concat(
+            Stream.of(ID, REVISION, DELETED, PAYLOAD),
+            tableResolver.getAdditionalColumns().keySet().stream()
+        ).collect(Collectors.joining(", "));
+        String values = Stream.concat(
+            Stream.of("?", emitter.getValueVariable()),
+            Collections.nCopies(tableResolver.getAdditionalColumns().size(), "?").stream()
+        ).collect(Collectors.joining(", "));
+        String into = "INTO " + base + "_RAW (" + columns + ") VALUES (?, ?, " + values + ")";
         return new OracleDispatcher<>(
             ddl,
             Stream.of(
@@ -261,18 +380,48 @@ public class OracleDispatcherFactory implements JdbcDispatcherFactory {
                 entry -> ddl.get(entry.getValue()),
                 entry -> "CREATE VIEW " + entry.getKey() + " AS SELECT DUMMY FROM DUAL"
             )) : Collections.emptyMap(),
-            "INSERT INTO " + base + "_RAW (" +
-                Stream.concat(
-                    Stream.of(ID, REVISION, DELETED, PAYLOAD),
-                    tableResolver.getAdditionalColumns().keySet().stream()
-                ).collect(Collectors.joining(", "))
-                + ") VALUES (" +
-                Stream.concat(
-                    Stream.of("?", "?", "?", emitter.getValueVariable()),
-                    Collections.nCopies(tableResolver.getAdditionalColumns().size(), "?").stream()
-                ).collect(Collectors.joining(", "))
-                + ")",
-            "TRUNCATE TABLE " + base + "_RAW",
+            "INSERT " + into,
+            "INSERT /*+ IGNORE_ROW_ON_DUPKEY_INDEX(" + base + "_RAW, " + base + "_PK) */ " + into,
+            "INSERT INTO " + base + "_RAW (" + columns + ") VALUES (?, "
+                + "(SELECT COALESCE(MAX(" + REVISION + "), 0) + 1 FROM " + base + "_RAW WHERE " + ID + " = ?), "
+                + values + ")",
+            objects.entrySet().stream()
+                .filter(entry -> entry.getValue().equals("TABLE"))
+                .map(entry -> "TRUNCATE TABLE " + entry.getKey())
+                .collect(Collectors.toList()),
+            Arrays.asList(
+                "SELECT MIN(" + ID + ") FROM " + base + "_RAW",
+                "SELECT COUNT(*), MAX(" + ID + ") "
+                    + "FROM (SELECT DISTINCT " + ID + " FROM " + base + "_RAW WHERE " + ID + " >= ? ORDER BY " + ID + " FETCH FIRST ? ROWS ONLY)",
+                "DELETE FROM " + base + "_RAW SUPERSEDED "
+                    + "WHERE SUPERSEDED." + ID + " BETWEEN ? AND ? "
+                    + "AND SUPERSEDED." + REVISION + " < ("
+                    + "SELECT RETAINED." + REVISION + " FROM " + base + "_RAW RETAINED "
+                    + "WHERE RETAINED." + ID + " = SUPERSEDED." + ID + " "
+                    + "ORDER BY RETAINED." + REVISION + " DESC "
+                    + "OFFSET ? ROWS FETCH NEXT 1 ROWS ONLY"
+                    + ")"
+            ),
+            partitioning == null ? Collections.emptyList() : Collections.singletonList(
+                "ALTER TABLE " + base + "_RAW SPLIT PARTITION DEF INTO (PARTITION %1$s VALUES LESS THAN (%3$s), PARTITION DEF) UPDATE GLOBAL INDEXES"
+            ),
+            partitioning == null ? Collections.emptyList() : Stream.concat(
+                Stream.of("ALTER TABLE " + base + "_RAW DROP PARTITION %1$s UPDATE GLOBAL INDEXES"),
+                repair.stream()
+            ).collect(Collectors.toList()),
+            partitioning == null ? Collections.emptyList() : Stream.concat(
+                Stream.of(
+                    "CREATE TABLE " + base + "_RAW_%1$s FOR EXCHANGE WITH TABLE " + base + "_RAW",
+                    "ALTER TABLE " + base + "_RAW EXCHANGE PARTITION %1$s WITH TABLE " + base + "_RAW_%1$s UPDATE GLOBAL INDEXES",
+                    "ALTER TABLE " + base + "_RAW DROP PARTITION %1$s UPDATE GLOBAL INDEXES"
+                ),
+                repair.stream()
+            ).collect(Collectors.toList()),
+            partitioning == null ? null : partitioning.equals(REVISION) ? "NUMBER(19)" : tableResolver.getAdditionalColumns().get(partitioning),
+            "SELECT HIGH_VALUE FROM USER_TAB_PARTITIONS "
+                + "WHERE TABLE_NAME = '" + base + "_RAW' AND PARTITION_NAME <> 'DEF' "
+                + "ORDER BY PARTITION_POSITION DESC "
+                + "FETCH FIRST 1 ROWS ONLY",
             tableResolver
         );
     }
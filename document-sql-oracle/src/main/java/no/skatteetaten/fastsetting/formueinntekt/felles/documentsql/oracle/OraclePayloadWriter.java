@@ -0,0 +1,93 @@
+package no.skatteetaten.fastsetting.formueinntekt.felles.documentsql.oracle;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.sql.Clob;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.List;
+
+class OraclePayloadWriter extends Writer {
+
+    static final int INLINE_LIMIT = 4000;
+
+    private final Connection conn;
+
+    private final List<Clob> clobs;
+
+    private final StringBuilder buffer = new StringBuilder();
+
+    private int length;
+
+    private Clob clob;
+
+    private Writer target;
+
+    OraclePayloadWriter(Connection conn, List<Clob> clobs) {
+        this.conn = conn;
+        this.clobs = clobs;
+    }
+
+    static int length(CharSequence value) {
+        int length = 0;
+        for (int index = 0; index < value.length(); index++) {
+            length += length(value.charAt(index));
+        }
+        return length;
+    }
+
+    private static int length(char character) {
+        if (character < 0x80) {
+            return 1;
+        } else if (character < 0x800 || Character.isSurrogate(character)) {
+            return 2;
+        } else {
+            return 3;
+        }
+    }
+
+    @Override
+    public void write(char[] characters, int offset, int length) throws IOException {
+        if (target != null) {
+            target.write(characters, offset, length);
+            return;
+        }
+        for (int index = offset; index < offset + length; index++) {
+            this.length += length(characters[index]);
+        }
+        buffer.append(characters, offset, length);
+        if (this.length > INLINE_LIMIT) {
+            try {
+                clob = conn.createClob();
+                clobs.add(clob);
+                target = clob.setCharacterStream(1);
+            } catch (SQLException e) {
+                throw new IOException(e);
+            }
+            target.write(buffer.toString());
+            buffer.setLength(0);
+        }
+    }
+
+    @Override
+    public void flush() throws IOException {
+        if (target != null) {
+            target.flush();
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (target != null) {
+            target.close();
+        }
+    }
+
+    Clob getClob() {
+        return clob;
+    }
+
+    String getInline() {
+        return buffer.toString();
+    }
+}
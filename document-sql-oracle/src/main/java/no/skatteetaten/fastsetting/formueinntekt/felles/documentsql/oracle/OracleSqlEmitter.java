@@ -22,10 +22,11 @@ enum OracleSqlEmitter {
 
     XML("XMLTYPE NOT NULL", "XMLTYPE(?)", 1) {
         @Override
-        List<String> afterCreateTable(String base) {
+        List<String> afterCreateTable(String base, boolean partitioned) {
             return Collections.singletonList("CREATE INDEX " + base + "_IDX "
                 + "ON " + base + "_RAW (" + PAYLOAD + ") "
                 + "INDEXTYPE IS XDB.XMLINDEX "
+                + (partitioned ? "LOCAL " : "")
                 + "PARAMETERS ('PATH TABLE " + base + "_PTL')");
         }
 
@@ -172,9 +173,9 @@ enum OracleSqlEmitter {
         }
     },
 
-    JSON("CLOB NOT NULL CHECK (" + PAYLOAD + " IS JSON)", "?",0) {
+    JSON("CLOB NOT NULL CHECK (" + PAYLOAD + " IS JSON)", "?", 0) {
         @Override
-        List<String> afterCreateTable(String base) {
+        List<String> afterCreateTable(String base, boolean partitioned) {
             return Collections.singletonList("CREATE MATERIALIZED VIEW LOG ON " + base + "_RAW WITH PRIMARY KEY");
         }
 
@@ -193,50 +194,32 @@ enum OracleSqlEmitter {
             Function<Set<String>, Map<String, String>> namespacePrefixResolver,
             Function<Class<?>, String> typeResolver
         ) {
-            String root = "$" + (paths.isEmpty() ? "" : ("." + paths.stream().map(path ->
-                PathElement.full(".", new OracleJsonStrictSyntaxTransformer(), path, namespace -> "") + "[*]"
-            ).collect(Collectors.joining("."))));
-            String allColumns = Stream.concat(
-                directColumns.stream(),
-                properties.keySet().stream().map(columns::get)
-            ).collect(Collectors.joining(", "));
-            Map<List<PathElement>, String> types = properties.entrySet().stream().collect(Collectors.toMap(
-                Map.Entry::getKey,
-                entry -> typeResolver.apply(entry.getValue())
-            ));
-            String jsonColumns = properties.keySet().stream().map(path ->
-                columns.get(path) + " "
-                    + types.get(path) + " "
-                    + "PATH '" + PathElement.full("$", ".", new OracleJsonStrictSyntaxTransformer(), path, namespace -> "") + "' "
-                    + "NULL ON EMPTY ERROR ON ERROR"
-            ).collect(Collectors.joining(", "));
-            ddl.add("CREATE MATERIALIZED VIEW " + name + " "
-                + "BUILD IMMEDIATE "
-                + "REFRESH FAST ON STATEMENT WITH PRIMARY KEY "
-                + "AS "
-                + "SELECT " + allColumns + " "
-                + "FROM " + base + "_RAW, "
-                + "JSON_TABLE(" + PAYLOAD + ", "
-                + "'" + root + "' "
-                + "COLUMNS (" + jsonColumns + "))");
-            int index = 0;
-            for (String column : Stream.of(
-                Stream.of(ID + ", " + REVISION),
-                directColumns.stream().filter(column -> Stream.of(ID, REVISION, DELETED, PAYLOAD).noneMatch(column::equals)),
-                properties.keySet().stream().map(columns::get).sorted()
-            ).flatMap(Function.identity()).collect(Collectors.toList())) {
-                ddl.add("CREATE INDEX " + name + "_IDX" + (index++) + " "
-                    + "ON " + name + " "
-                    + "(" + column + ")");
-            }
-            objects.put(name, "MATERIALIZED VIEW");
-            viewMeta.put(name, properties.keySet().stream().collect(Collectors.toMap(path -> PathElement.full(
-                "$",
-                ".",
-                new OracleJsonStrictSyntaxTransformer(),
-                Stream.concat(paths.stream().flatMap(Collection::stream), path.stream()).collect(Collectors.toList()),
-                namespace -> ""
-            ),columns::get)));
+            makeJsonView(base, name, paths, directColumns, properties, columns, ddl, viewMeta, objects, typeResolver);
+        }
+    },
+
+    NATIVE_JSON("JSON NOT NULL", "?", 0) {
+        @Override
+        List<String> afterCreateTable(String base, boolean partitioned) {
+            return Collections.singletonList("CREATE MATERIALIZED VIEW LOG ON " + base + "_RAW WITH PRIMARY KEY");
+        }
+
+        @Override
+        void makeView(
+            String base,
+            String name,
+            List<List<PathElement>> paths,
+            List<String> directColumns,
+            Map<List<PathElement>, Class<?>> properties,
+            Map<List<PathElement>, String> columns,
+            List<String> ddl,
+            Map<String, Integer> viewIndices,
+            Map<String, Map<String, String>> viewMeta,
+            Map<String, String> objects,
+            Function<Set<String>, Map<String, String>> namespacePrefixResolver,
+            Function<Class<?>, String> typeResolver
+        ) {
+            makeJsonView(base, name, paths, directColumns, properties, columns, ddl, viewMeta, objects, typeResolver);
         }
     };
 
@@ -250,6 +233,64 @@ enum OracleSqlEmitter {
         this.roots = roots;
     }
 
+    void makeJsonView(
+        String base,
+        String name,
+        List<List<PathElement>> paths,
+        List<String> directColumns,
+        Map<List<PathElement>, Class<?>> properties,
+        Map<List<PathElement>, String> columns,
+        List<String> ddl,
+        Map<String, Map<String, String>> viewMeta,
+        Map<String, String> objects,
+        Function<Class<?>, String> typeResolver
+    ) {
+        String root = "$" + (paths.isEmpty() ? "" : ("." + paths.stream().map(path ->
+            PathElement.full(".", new OracleJsonStrictSyntaxTransformer(), path, namespace -> "") + "[*]"
+        ).collect(Collectors.joining("."))));
+        String allColumns = Stream.concat(
+            directColumns.stream(),
+            properties.keySet().stream().map(columns::get)
+        ).collect(Collectors.joining(", "));
+        Map<List<PathElement>, String> types = properties.entrySet().stream().collect(Collectors.toMap(
+            Map.Entry::getKey,
+            entry -> typeResolver.apply(entry.getValue())
+        ));
+        String jsonColumns = properties.keySet().stream().map(path ->
+            columns.get(path) + " "
+                + types.get(path) + " "
+                + "PATH '" + PathElement.full("$", ".", new OracleJsonStrictSyntaxTransformer(), path, namespace -> "") + "' "
+                + "NULL ON EMPTY ERROR ON ERROR"
+        ).collect(Collectors.joining(", "));
+        ddl.add("CREATE MATERIALIZED VIEW " + name + " "
+            + "BUILD IMMEDIATE "
+            + "REFRESH FAST ON STATEMENT WITH PRIMARY KEY "
+            + "AS "
+            + "SELECT " + allColumns + " "
+            + "FROM " + base + "_RAW, "
+            + "JSON_TABLE(" + PAYLOAD + ", "
+            + "'" + root + "' "
+            + "COLUMNS (" + jsonColumns + "))");
+        int index = 0;
+        for (String column : Stream.of(
+            Stream.of(ID + ", " + REVISION),
+            directColumns.stream().filter(column -> Stream.of(ID, REVISION, DELETED, PAYLOAD).noneMatch(column::equals)),
+            properties.keySet().stream().map(columns::get).sorted()
+        ).flatMap(Function.identity()).collect(Collectors.toList())) {
+            ddl.add("CREATE INDEX " + name + "_IDX" + (index++) + " "
+                + "ON " + name + " "
+                + "(" + column + ")");
+        }
+        objects.put(name, "MATERIALIZED VIEW");
+        viewMeta.put(name, properties.keySet().stream().collect(Collectors.toMap(path -> PathElement.full(
+            "$",
+            ".",
+            new OracleJsonStrictSyntaxTransformer(),
+            Stream.concat(paths.stream().flatMap(Collection::stream), path.stream()).collect(Collectors.toList()),
+            namespace -> ""
+        ),columns::get)));
+    }
+
     String getPayloadType() {
         return payloadType;
     }
@@ -262,7 +303,7 @@ enum OracleSqlEmitter {
         return roots;
     }
 
-    abstract List<String> afterCreateTable(String base);
+    abstract List<String> afterCreateTable(String base, boolean partitioned);
 
     abstract void makeView(
         String base,
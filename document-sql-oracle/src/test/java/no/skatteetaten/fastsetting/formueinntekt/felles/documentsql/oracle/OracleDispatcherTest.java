@@ -2,12 +2,25 @@ package no.skatteetaten.fastsetting.formueinntekt.felles.documentsql.oracle;
 
 import static org.assertj.core.api.Assertions.assertThat;
 
+import java.io.IOException;
+import java.io.Writer;
 import java.sql.Connection;
+import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.sql.Statement;
+import java.util.AbstractMap;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import java.util.stream.Collectors;
 import java.util.stream.IntStream;
 
@@ -20,6 +33,7 @@ import com.zaxxer.hikari.HikariConfig;
 import com.zaxxer.hikari.HikariDataSource;
 import no.skatteetaten.fastsetting.formueinntekt.felles.documentsql.api.JaxbHandler;
 import no.skatteetaten.fastsetting.formueinntekt.felles.documentsql.api.JdbcDispatcher;
+import no.skatteetaten.fastsetting.formueinntekt.felles.documentsql.api.RevisionedId;
 import no.skatteetaten.fastsetting.formueinntekt.felles.documentsql.api.JacksonJsonPathResolver;
 import no.skatteetaten.fastsetting.formueinntekt.felles.documentsql.api.JaxbPathResolver;
 import no.skatteetaten.fastsetting.formueinntekt.felles.documentsql.api.SimpleTableResolver;
@@ -90,6 +104,20 @@ public class OracleDispatcherTest {
                         .build(name, type);
                 }
             }
+        }, {
+            new ObjectMapper()
+                .registerModule(new JavaTimeModule())
+                .disable(SerializationFeature.FAIL_ON_EMPTY_BEANS)
+                .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS),
+            new DispatcherFactory("JSON (current)") {
+                @Override
+                <T> JdbcDispatcher<T> apply(String name, Class<?> type, TableResolver<T> resolver) {
+                    return JdbcDispatcher.of(OracleDispatcherFactory.ofJson().withCurrentTable(true))
+                        .withTableResolver(resolver)
+                        .withViewResolver(new SimpleViewResolver(new JacksonJsonPathResolver()))
+                        .build(name, type);
+                }
+            }
         }});
     }
 
@@ -566,6 +594,209 @@ public class OracleDispatcherTest {
         dispatcher.drop(dataSource);
     }
 
+    @Test
+    public void trivial_dispatcher_insert_all() throws SQLException {
+        JdbcDispatcher<String> dispatcher = factory.apply("bar", SimpleSample.class);
+        dispatcher.printToEach(LOGGER::info);
+
+        dispatcher.create(dataSource);
+
+        try (Connection conn = dataSource.getConnection()) {
+            dispatcher.insertAll(conn, IntStream.range(0, 20).mapToObj(index -> {
+                SimpleSample example = new SimpleSample();
+                example.setVal("foo" + index);
+                try {
+                    return new AbstractMap.SimpleEntry<>(new RevisionedId("X" + index, 1, false), mapper.writeValueAsString(example));
+                } catch (JsonProcessingException e) {
+                    throw new IllegalStateException(e);
+                }
+            }), 7);
+        }
+
+        try (
+            Connection conn = dataSource.getConnection();
+            Statement stmt = conn.createStatement();
+            ResultSet rs = stmt.executeQuery("SELECT COUNT(*) FROM BAR WHERE VAL LIKE 'foo%'")
+        ) {
+            assertThat(rs.next()).isTrue();
+            assertThat(rs.getInt(1)).isEqualTo(20);
+            assertThat(rs.next()).isFalse();
+        }
+
+        dispatcher.drop(dataSource);
+    }
+
+    @Test
+    public void trivial_dispatcher_insert_if_absent() throws SQLException, JsonProcessingException {
+        JdbcDispatcher<String> dispatcher = factory.apply("bar", SimpleSample.class);
+        dispatcher.printToEach(LOGGER::info);
+
+        dispatcher.create(dataSource);
+
+        SimpleSample example = new SimpleSample();
+        example.setVal("foo");
+        Map<RevisionedId, String> payloads = new LinkedHashMap<>();
+        payloads.put(new RevisionedId("X", 1, false), mapper.writeValueAsString(example));
+        payloads.put(new RevisionedId("Y", 1, false), mapper.writeValueAsString(example));
+        try (Connection conn = dataSource.getConnection()) {
+            dispatcher.insert(conn, "X", 1, mapper.writeValueAsString(example));
+            assertThat(dispatcher.insertIfAbsent(conn, payloads)).containsExactly(
+                Map.entry(new RevisionedId("X", 1, false), false),
+                Map.entry(new RevisionedId("Y", 1, false), true)
+            );
+        }
+
+        try (
+            Connection conn = dataSource.getConnection();
+            Statement stmt = conn.createStatement();
+            ResultSet rs = stmt.executeQuery("SELECT COUNT(*) FROM BAR WHERE VAL = 'foo'")
+        ) {
+            assertThat(rs.next()).isTrue();
+            assertThat(rs.getInt(1)).isEqualTo(2);
+            assertThat(rs.next()).isFalse();
+        }
+
+        dispatcher.drop(dataSource);
+    }
+
+    @Test
+    public void trivial_dispatcher_append() throws SQLException, JsonProcessingException {
+        JdbcDispatcher<String> dispatcher = factory.apply("bar", SimpleSample.class);
+        dispatcher.printToEach(LOGGER::info);
+
+        dispatcher.create(dataSource);
+
+        SimpleSample example = new SimpleSample();
+        example.setVal("foo");
+        Map<String, String> payloads = new LinkedHashMap<>();
+        payloads.put("X", mapper.writeValueAsString(example));
+        payloads.put("Y", mapper.writeValueAsString(example));
+        try (Connection conn = dataSource.getConnection()) {
+            assertThat(dispatcher.append(conn, "X", mapper.writeValueAsString(example))).isEqualTo(new RevisionedId("X", 1, false));
+            assertThat(dispatcher.append(conn, payloads)).containsExactly(new RevisionedId("X", 2, false), new RevisionedId("Y", 1, false));
+        }
+
+        try (
+            Connection conn = dataSource.getConnection();
+            Statement stmt = conn.createStatement();
+            ResultSet rs = stmt.executeQuery("SELECT ID, REVISION FROM BAR_NOW ORDER BY ID")
+        ) {
+            assertThat(rs.next()).isTrue();
+            assertThat(rs.getString(1)).isEqualTo("X");
+            assertThat(rs.getInt(2)).isEqualTo(2);
+            assertThat(rs.next()).isTrue();
+            assertThat(rs.getString(1)).isEqualTo("Y");
+            assertThat(rs.getInt(2)).isEqualTo(1);
+            assertThat(rs.next()).isFalse();
+        }
+
+        dispatcher.drop(dataSource);
+    }
+
+    @Test
+    public void trivial_dispatcher_concurrent_writers() throws Exception {
+        JdbcDispatcher<String> dispatcher = factory.apply("bar", SimpleSample.class);
+        dispatcher.printToEach(LOGGER::info);
+
+        dispatcher.create(dataSource);
+
+        SimpleSample example = new SimpleSample();
+        example.setVal("foo");
+        String payload = mapper.writeValueAsString(example);
+        CyclicBarrier barrier = new CyclicBarrier(2);
+        ExecutorService executorService = Executors.newFixedThreadPool(2);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int writer = 1; writer <= 2; writer++) {
+                int offset = writer;
+                futures.add(executorService.submit(() -> {
+                    for (int index = 0; index < 10; index++) {
+                        barrier.await();
+                        dispatcher.insert(dataSource, "X", 2 * index + offset, payload);
+                    }
+                    return null;
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            executorService.shutdownNow();
+        }
+
+        try (
+            Connection conn = dataSource.getConnection();
+            Statement stmt = conn.createStatement();
+            ResultSet rs = stmt.executeQuery("SELECT ID, REVISION FROM BAR_MAX")
+        ) {
+            assertThat(rs.next()).isTrue();
+            assertThat(rs.getString(1)).isEqualTo("X");
+            assertThat(rs.getInt(2)).isEqualTo(20);
+            assertThat(rs.next()).isFalse();
+        }
+
+        dispatcher.drop(dataSource);
+    }
+
+    @Test
+    public void trivial_dispatcher_streaming() throws SQLException, JsonProcessingException {
+        JdbcDispatcher<String> dispatcher = factory.apply("bar", SimpleSample.class, new TableResolver<String>() {
+            @Override
+            public String toPayload(String value) {
+                throw new AssertionError("Payload should be streamed");
+            }
+
+            @Override
+            public boolean isStreaming() {
+                return true;
+            }
+
+            @Override
+            public void writePayload(String value, Writer writer) throws IOException {
+                for (int index = 0; index < value.length(); index += 100) {
+                    writer.write(value, index, Math.min(100, value.length() - index));
+                }
+            }
+
+            @Override
+            public void registerAdditionalValues(int index, PreparedStatement ps, String value) { }
+
+            @Override
+            public Map<String, String> getAdditionalColumns() {
+                return Collections.emptyMap();
+            }
+        });
+        dispatcher.printToEach(LOGGER::info);
+
+        dispatcher.create(dataSource);
+
+        SimpleSample example = new SimpleSample();
+        example.setVal("x".repeat(1000) + "\u00f8\u20ac\ud834\udd1e");
+        String payload = mapper.writeValueAsString(example);
+        try (Connection conn = dataSource.getConnection()) {
+            dispatcher.insert(conn, "X", 1, payload);
+            dispatcher.load(conn, IntStream.range(0, 5).mapToObj(index -> new AbstractMap.SimpleEntry<>(
+                new RevisionedId("Y" + index, 1, false),
+                payload
+            )));
+        }
+
+        try (
+            Connection conn = dataSource.getConnection();
+            Statement stmt = conn.createStatement();
+            ResultSet rs = stmt.executeQuery("SELECT ID, VAL FROM BAR ORDER BY ID")
+        ) {
+            for (String id : Arrays.asList("X", "Y0", "Y1", "Y2", "Y3", "Y4")) {
+                assertThat(rs.next()).isTrue();
+                assertThat(rs.getString(1)).isEqualTo(id);
+                assertThat(rs.getString(2)).isEqualTo(example.getVal());
+            }
+            assertThat(rs.next()).isFalse();
+        }
+
+        dispatcher.drop(dataSource);
+    }
+
     @Test
     public void trivial_dispatcher_latest_version() throws SQLException, JsonProcessingException {
         JdbcDispatcher<String> dispatcher = factory.apply("bar", NumericSample.class);
@@ -599,6 +830,82 @@ public class OracleDispatcherTest {
         dispatcher.drop(dataSource);
     }
 
+    @Test
+    public void trivial_dispatcher_revision_views() throws SQLException, JsonProcessingException {
+        JdbcDispatcher<String> dispatcher = factory.apply("bar", SimpleSample.class);
+
+        dispatcher.create(dataSource);
+
+        SimpleSample example = new SimpleSample();
+        example.setVal("foo");
+        try (Connection conn = dataSource.getConnection()) {
+            dispatcher.insert(conn, "X", 2, mapper.writeValueAsString(example));
+            dispatcher.insert(conn, "X", 1, mapper.writeValueAsString(example));
+            dispatcher.insert(conn, "Y", 1, mapper.writeValueAsString(example));
+            dispatcher.insert(conn, "Y", 2, true, mapper.writeValueAsString(example));
+            dispatcher.insert(conn, "Z", 1, mapper.writeValueAsString(example));
+            dispatcher.insert(conn, "Z", 2, true, mapper.writeValueAsString(example));
+        }
+
+        try (Connection conn = dataSource.getConnection(); Statement stmt = conn.createStatement()) {
+            stmt.executeUpdate("DELETE FROM BAR_RAW WHERE ID = 'Z' AND REVISION = 2");
+        }
+
+        assertThat(revisions("BAR_MIN")).containsExactly("X1", "Y1", "Z1");
+        assertThat(revisions("BAR_MAX")).containsExactly("X2", "Y2", "Z1");
+        assertThat(revisions("BAR_NOW")).containsExactly("X2", "Z1");
+
+        dispatcher.truncate(dataSource);
+
+        assertThat(revisions("BAR_MAX")).isEmpty();
+        assertThat(revisions("BAR_NOW")).isEmpty();
+
+        dispatcher.drop(dataSource);
+    }
+
+    @Test
+    public void trivial_dispatcher_retain() throws SQLException, JsonProcessingException {
+        JdbcDispatcher<String> dispatcher = factory.apply("bar", SimpleSample.class);
+
+        dispatcher.create(dataSource);
+
+        SimpleSample example = new SimpleSample();
+        example.setVal("foo");
+        try (Connection conn = dataSource.getConnection()) {
+            for (int revision = 1; revision <= 5; revision++) {
+                dispatcher.insert(conn, "X", revision, mapper.writeValueAsString(example));
+            }
+            dispatcher.insert(conn, "Y", 1, mapper.writeValueAsString(example));
+            dispatcher.insert(conn, "Y", 2, mapper.writeValueAsString(example));
+            dispatcher.insert(conn, "Z", 1, mapper.writeValueAsString(example));
+        }
+
+        List<Long> progress = new ArrayList<>();
+        assertThat(dispatcher.retain(dataSource, 2, 1, progress::add)).isEqualTo(3);
+        assertThat(progress).isNotEmpty().endsWith(3L);
+
+        assertThat(revisions("BAR")).containsExactly("X4", "X5", "Y1", "Y2", "Z1");
+        assertThat(revisions("BAR_MIN")).containsExactly("X4", "Y1", "Z1");
+        assertThat(dispatcher.retain(dataSource, 1)).isEqualTo(2);
+        assertThat(revisions("BAR_MAX")).containsExactly("X5", "Y2", "Z1");
+
+        dispatcher.drop(dataSource);
+    }
+
+    private List<String> revisions(String view) throws SQLException {
+        List<String> revisions = new ArrayList<>();
+        try (
+            Connection conn = dataSource.getConnection();
+            Statement stmt = conn.createStatement();
+            ResultSet rs = stmt.executeQuery("SELECT ID, REVISION FROM " + view + " ORDER BY ID, REVISION")
+        ) {
+            while (rs.next()) {
+                revisions.add(rs.getString(1) + rs.getLong(2));
+            }
+        }
+        return revisions;
+    }
+
     abstract static class DispatcherFactory {
 
         private final String description;
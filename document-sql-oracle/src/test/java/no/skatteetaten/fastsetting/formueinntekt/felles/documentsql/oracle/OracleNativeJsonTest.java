@@ -0,0 +1,128 @@
+package no.skatteetaten.fastsetting.formueinntekt.felles.documentsql.oracle;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Arrays;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.zaxxer.hikari.HikariConfig;
+import com.zaxxer.hikari.HikariDataSource;
+import no.skatteetaten.fastsetting.formueinntekt.felles.documentsql.api.JacksonJsonPathResolver;
+import no.skatteetaten.fastsetting.formueinntekt.felles.documentsql.api.JdbcDispatcher;
+import no.skatteetaten.fastsetting.formueinntekt.felles.documentsql.api.SimpleViewResolver;
+import no.skatteetaten.fastsetting.formueinntekt.felles.documentsql.oracle.sample.SimpleSample;
+import no.skatteetaten.fastsetting.formueinntekt.felles.documentsql.oracle.sample.ViewSample;
+import org.junit.After;
+import org.junit.Assume;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.testcontainers.containers.OracleContainer;
+
+@Category(OracleContainer.class)
+public class OracleNativeJsonTest {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(OracleNativeJsonTest.class);
+
+    @Rule
+    public OracleContainer oracle = new OracleContainer("gvenzl/oracle-xe:21-slim-faststart");
+
+    private final ObjectMapper mapper = new ObjectMapper();
+
+    private HikariDataSource dataSource;
+
+    @Before
+    public void setUp() throws SQLException {
+        HikariConfig hikariConfig = new HikariConfig();
+        hikariConfig.setJdbcUrl(oracle.getJdbcUrl());
+        hikariConfig.setUsername(oracle.getUsername());
+        hikariConfig.setPassword(oracle.getPassword());
+        dataSource = new HikariDataSource(hikariConfig);
+        try (Connection conn = dataSource.getConnection()) {
+            Assume.assumeTrue("Native JSON requires Oracle 21 or later", conn.getMetaData().getDatabaseMajorVersion() >= 21);
+        }
+    }
+
+    @After
+    public void tearDown() {
+        dataSource.close();
+    }
+
+    @Test
+    public void trivial_dispatcher() throws SQLException, JsonProcessingException {
+        JdbcDispatcher<String> dispatcher = JdbcDispatcher.of(OracleDispatcherFactory.ofNativeJson())
+            .withViewResolver(new SimpleViewResolver(new JacksonJsonPathResolver()))
+            .build("bar", SimpleSample.class);
+        dispatcher.printToEach(LOGGER::info);
+
+        dispatcher.create(dataSource);
+
+        SimpleSample example = new SimpleSample();
+        example.setVal("foo");
+        try (Connection conn = dataSource.getConnection()) {
+            dispatcher.insert(conn, "X", 1, mapper.writeValueAsString(example));
+        }
+
+        try (
+            Connection conn = dataSource.getConnection();
+            Statement stmt = conn.createStatement();
+            ResultSet rs = stmt.executeQuery("SELECT ID, REVISION, VAL "
+                + "FROM BAR "
+                + "WHERE VAL = 'foo'")
+        ) {
+            assertThat(rs.next()).isTrue();
+            assertThat(rs.getString(1)).isEqualTo("X");
+            assertThat(rs.getInt(2)).isEqualTo(1);
+            assertThat(rs.getString(3)).isEqualTo("foo");
+            assertThat(rs.next()).isFalse();
+        }
+
+        dispatcher.drop(dataSource);
+    }
+
+    @Test
+    public void nested_list_dispatcher() throws SQLException, JsonProcessingException {
+        JdbcDispatcher<String> dispatcher = JdbcDispatcher.of(OracleDispatcherFactory.ofNativeJson())
+            .withViewResolver(new SimpleViewResolver(new JacksonJsonPathResolver()))
+            .build("bar", ViewSample.class);
+        dispatcher.printToEach(LOGGER::info);
+
+        dispatcher.create(dataSource);
+
+        ViewSample example = new ViewSample();
+        SimpleSample first = new SimpleSample();
+        first.setVal("foo");
+        SimpleSample second = new SimpleSample();
+        second.setVal("bar");
+        example.setList(Arrays.asList(first, second));
+        try (Connection conn = dataSource.getConnection()) {
+            dispatcher.insert(conn, "X", 1, mapper.writeValueAsString(example));
+        }
+
+        try (
+            Connection conn = dataSource.getConnection();
+            Statement stmt = conn.createStatement();
+            ResultSet rs = stmt.executeQuery("SELECT ID, VAL "
+                + "FROM BAR_LIST "
+                + "ORDER BY VAL")
+        ) {
+            assertThat(rs.next()).isTrue();
+            assertThat(rs.getString(1)).isEqualTo("X");
+            assertThat(rs.getString(2)).isEqualTo("bar");
+            assertThat(rs.next()).isTrue();
+            assertThat(rs.getString(1)).isEqualTo("X");
+            assertThat(rs.getString(2)).isEqualTo("foo");
+            assertThat(rs.next()).isFalse();
+        }
+
+        dispatcher.drop(dataSource);
+    }
+}
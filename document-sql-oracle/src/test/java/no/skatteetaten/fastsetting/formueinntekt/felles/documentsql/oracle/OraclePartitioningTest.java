@@ -0,0 +1,144 @@
+package no.skatteetaten.fastsetting.formueinntekt.felles.documentsql.oracle;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.AbstractMap;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.dataformat.xml.XmlMapper;
+import com.zaxxer.hikari.HikariConfig;
+import com.zaxxer.hikari.HikariDataSource;
+import no.skatteetaten.fastsetting.formueinntekt.felles.documentsql.api.JaxbHandler;
+import no.skatteetaten.fastsetting.formueinntekt.felles.documentsql.api.JaxbPathResolver;
+import no.skatteetaten.fastsetting.formueinntekt.felles.documentsql.api.JdbcDispatcher;
+import no.skatteetaten.fastsetting.formueinntekt.felles.documentsql.api.RevisionedId;
+import no.skatteetaten.fastsetting.formueinntekt.felles.documentsql.api.SimpleViewResolver;
+import no.skatteetaten.fastsetting.formueinntekt.felles.documentsql.api.TableResolver;
+import no.skatteetaten.fastsetting.formueinntekt.felles.documentsql.oracle.sample.SimpleSample;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+import org.testcontainers.containers.OracleContainer;
+
+@Category(OracleContainer.class)
+public class OraclePartitioningTest {
+
+    @Rule
+    public OracleContainer oracle = new OracleContainer("oracle/database:18.4.0-xe-prebuilt");
+
+    private HikariDataSource dataSource;
+
+    private JdbcDispatcher<Map.Entry<Integer, String>> dispatcher;
+
+    @Before
+    public void setUp() throws SQLException {
+        HikariConfig hikariConfig = new HikariConfig();
+        hikariConfig.setJdbcUrl(oracle.getJdbcUrl());
+        hikariConfig.setUsername(oracle.getUsername());
+        hikariConfig.setPassword(oracle.getPassword());
+        dataSource = new HikariDataSource(hikariConfig);
+        dispatcher = JdbcDispatcher.of(OracleDispatcherFactory.ofXml().withPartitioning("PERIOD"))
+            .withTableResolver(new PeriodTableResolver())
+            .withViewResolver(new SimpleViewResolver(new JaxbPathResolver(JaxbHandler.ofJavax())))
+            .build("bar", SimpleSample.class, "sample");
+        dispatcher.create(dataSource);
+    }
+
+    @After
+    public void tearDown() throws SQLException {
+        dispatcher.drop(dataSource);
+        dataSource.close();
+    }
+
+    @Test
+    public void partition_by_period() throws SQLException, JsonProcessingException {
+        dispatcher.addPartition(dataSource, "Y2020", null, "2021");
+        dispatcher.addPartition(dataSource, "Y2021", "2021", "2022");
+
+        XmlMapper mapper = new XmlMapper();
+        SimpleSample sample = new SimpleSample();
+        sample.setVal("foo");
+        try (Connection conn = dataSource.getConnection()) {
+            dispatcher.insert(conn, "X", 1, new AbstractMap.SimpleEntry<>(2020, mapper.writeValueAsString(sample)));
+            dispatcher.insert(conn, "X", 2, new AbstractMap.SimpleEntry<>(2021, mapper.writeValueAsString(sample)));
+            dispatcher.insert(conn, "Y", 1, new AbstractMap.SimpleEntry<>(2022, mapper.writeValueAsString(sample)));
+        }
+
+        dispatcher.dropPartition(dataSource, "Y2020");
+
+        assertThat(rows("SELECT ID, REVISION FROM BAR_RAW")).containsExactly("X2", "Y1");
+
+        try (Connection conn = dataSource.getConnection()) {
+            dispatcher.insert(conn, "Z", 1, new AbstractMap.SimpleEntry<>(2021, mapper.writeValueAsString(sample)));
+        }
+
+        assertThat(rows("SELECT ID, REVISION FROM BAR_RAW")).containsExactly("X2", "Y1", "Z1");
+    }
+
+    @Test
+    public void partition_by_period_insert_if_absent() throws SQLException, JsonProcessingException {
+        dispatcher.addPartition(dataSource, "Y2020", null, "2021");
+
+        XmlMapper mapper = new XmlMapper();
+        SimpleSample sample = new SimpleSample();
+        sample.setVal("foo");
+        try (Connection conn = dataSource.getConnection()) {
+            RevisionedId id = new RevisionedId("X", 1, false);
+            assertThat(dispatcher.insertIfAbsent(conn, id, new AbstractMap.SimpleEntry<>(2020, mapper.writeValueAsString(sample)))).isTrue();
+            assertThat(dispatcher.insertIfAbsent(conn, id, new AbstractMap.SimpleEntry<>(2020, mapper.writeValueAsString(sample)))).isFalse();
+            assertThat(dispatcher.insertIfAbsent(conn, id, new AbstractMap.SimpleEntry<>(2021, mapper.writeValueAsString(sample)))).isFalse();
+        }
+
+        assertThat(rows("SELECT ID, PERIOD FROM BAR_RAW")).containsExactly("X2020");
+    }
+
+    @Test
+    public void partition_bounds_are_validated() {
+        assertThatThrownBy(() -> dispatcher.addPartition(dataSource, "Y2020", "2020", "2021")).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> dispatcher.addPartition(dataSource, "Y2020", null, "2021) --")).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    private List<String> rows(String query) throws SQLException {
+        List<String> rows = new ArrayList<>();
+        try (
+            Connection conn = dataSource.getConnection();
+            Statement stmt = conn.createStatement();
+            ResultSet rs = stmt.executeQuery(query + " ORDER BY 1, 2")
+        ) {
+            while (rs.next()) {
+                rows.add(rs.getString(1) + rs.getLong(2));
+            }
+        }
+        return rows;
+    }
+
+    static class PeriodTableResolver implements TableResolver<Map.Entry<Integer, String>> {
+
+        @Override
+        public String toPayload(Map.Entry<Integer, String> value) {
+            return value.getValue();
+        }
+
+        @Override
+        public void registerAdditionalValues(int index, PreparedStatement ps, Map.Entry<Integer, String> value) throws SQLException {
+            ps.setInt(index, value.getKey());
+        }
+
+        @Override
+        public Map<String, String> getAdditionalColumns() {
+            return Collections.singletonMap("PERIOD", "NUMBER(4)");
+        }
+    }
+}
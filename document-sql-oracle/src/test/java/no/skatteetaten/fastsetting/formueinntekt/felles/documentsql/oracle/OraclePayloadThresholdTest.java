@@ -0,0 +1,138 @@
+package no.skatteetaten.fastsetting.formueinntekt.felles.documentsql.oracle;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.AbstractMap;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.BiFunction;
+import java.util.stream.IntStream;
+
+import com.zaxxer.hikari.HikariConfig;
+import com.zaxxer.hikari.HikariDataSource;
+import no.skatteetaten.fastsetting.formueinntekt.felles.documentsql.api.JacksonJsonPathResolver;
+import no.skatteetaten.fastsetting.formueinntekt.felles.documentsql.api.JaxbHandler;
+import no.skatteetaten.fastsetting.formueinntekt.felles.documentsql.api.JaxbPathResolver;
+import no.skatteetaten.fastsetting.formueinntekt.felles.documentsql.api.JdbcDispatcher;
+import no.skatteetaten.fastsetting.formueinntekt.felles.documentsql.api.RevisionedId;
+import no.skatteetaten.fastsetting.formueinntekt.felles.documentsql.api.SimpleViewResolver;
+import no.skatteetaten.fastsetting.formueinntekt.felles.documentsql.oracle.sample.SimpleSample;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+import org.junit.runner.RunWith;
+import org.junit.runners.Parameterized;
+import org.testcontainers.containers.OracleContainer;
+
+@RunWith(Parameterized.class)
+@Category(OracleContainer.class)
+public class OraclePayloadThresholdTest {
+
+    private final JdbcDispatcher<String> dispatcher;
+
+    private final BiFunction<String, String, String> document;
+
+    @Parameterized.Parameters(name = "{0}")
+    public static Collection<Object[]> data() {
+        return Arrays.asList(new Object[][] {{
+            "XML",
+            JdbcDispatcher.of(OracleDispatcherFactory.ofXml())
+                .withViewResolver(new SimpleViewResolver(new JaxbPathResolver(JaxbHandler.ofJavax())))
+                .build("bar", SimpleSample.class, "sample"),
+            (BiFunction<String, String, String>) (pad, val) -> "<sample><pad>" + pad + "</pad><val>" + val + "</val></sample>"
+        }, {
+            "JSON",
+            JdbcDispatcher.of(OracleDispatcherFactory.ofJson())
+                .withViewResolver(new SimpleViewResolver(new JacksonJsonPathResolver()))
+                .build("bar", SimpleSample.class),
+            (BiFunction<String, String, String>) (pad, val) -> "{\"pad\":\"" + pad + "\",\"val\":\"" + val + "\"}"
+        }});
+    }
+
+    public OraclePayloadThresholdTest(String name, JdbcDispatcher<String> dispatcher, BiFunction<String, String, String> document) {
+        this.dispatcher = dispatcher;
+        this.document = document;
+    }
+
+    @Rule
+    public OracleContainer oracle = new OracleContainer("oracle/database:18.4.0-xe-prebuilt");
+
+    private HikariDataSource dataSource;
+
+    @Before
+    public void setUp() throws SQLException {
+        HikariConfig hikariConfig = new HikariConfig();
+        hikariConfig.setJdbcUrl(oracle.getJdbcUrl());
+        hikariConfig.setUsername(oracle.getUsername());
+        hikariConfig.setPassword(oracle.getPassword());
+        dataSource = new HikariDataSource(hikariConfig);
+        dispatcher.create(dataSource);
+    }
+
+    @After
+    public void tearDown() throws SQLException {
+        dispatcher.drop(dataSource);
+        dataSource.close();
+    }
+
+    @Test
+    public void single_byte_payloads_around_inline_limit() throws SQLException {
+        roundTrip('x');
+    }
+
+    @Test
+    public void multi_byte_payloads_around_inline_limit() throws SQLException {
+        roundTrip('ø');
+    }
+
+    private void roundTrip(char character) throws SQLException {
+        Map<String, String> documents = new LinkedHashMap<>();
+        IntStream.rangeClosed(-1, 1).forEach(delta -> {
+            String val = "V" + (delta + 1);
+            String payload = document.apply(pad(character, OraclePayloadWriter.INLINE_LIMIT + delta - OraclePayloadWriter.length(document.apply("", val))), val);
+            assertThat(OraclePayloadWriter.length(payload)).isEqualTo(OraclePayloadWriter.INLINE_LIMIT + delta);
+            documents.put(val, payload);
+        });
+
+        try (Connection conn = dataSource.getConnection()) {
+            dispatcher.insertAll(conn, documents.entrySet().stream().map(entry -> new AbstractMap.SimpleEntry<>(
+                new RevisionedId(entry.getKey(), 1, false),
+                entry.getValue()
+            )), 2);
+        }
+        for (Map.Entry<String, String> entry : documents.entrySet()) {
+            try (Connection conn = dataSource.getConnection()) {
+                dispatcher.insert(conn, entry.getKey(), 2, entry.getValue());
+            }
+        }
+
+        try (
+            Connection conn = dataSource.getConnection();
+            Statement stmt = conn.createStatement();
+            ResultSet rs = stmt.executeQuery("SELECT ID, REVISION, VAL FROM BAR ORDER BY ID, REVISION")
+        ) {
+            for (String val : documents.keySet()) {
+                for (int revision = 1; revision <= 2; revision++) {
+                    assertThat(rs.next()).isTrue();
+                    assertThat(rs.getString(1)).isEqualTo(val);
+                    assertThat(rs.getLong(2)).isEqualTo(revision);
+                    assertThat(rs.getString(3)).isEqualTo(val);
+                }
+            }
+            assertThat(rs.next()).isFalse();
+        }
+    }
+
+    private static String pad(char character, int length) {
+        int size = OraclePayloadWriter.length(String.valueOf(character));
+        return String.valueOf(character).repeat(length / size) + "x".repeat(length % size);
+    }
+}
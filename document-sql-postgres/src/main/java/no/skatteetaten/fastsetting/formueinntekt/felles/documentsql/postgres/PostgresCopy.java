@@ -0,0 +1,154 @@
+package no.skatteetaten.fastsetting.formueinntekt.felles.documentsql.postgres;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.Iterator;
+import java.util.Map;
+
+import no.skatteetaten.fastsetting.formueinntekt.felles.documentsql.api.RevisionedId;
+import no.skatteetaten.fastsetting.formueinntekt.felles.documentsql.api.TableResolver;
+import org.postgresql.PGConnection;
+import org.postgresql.copy.CopyIn;
+
+class PostgresCopy extends Writer {
+
+    private static final boolean AVAILABLE;
+
+    static {
+        boolean available;
+        try {
+            Class.forName("org.postgresql.PGConnection", false, PostgresCopy.class.getClassLoader());
+            available = true;
+        } catch (ClassNotFoundException | LinkageError ignored) {
+            available = false;
+        }
+        AVAILABLE = available;
+    }
+
+    private static final int BUFFER_SIZE = 1 << 15;
+
+    private final CopyIn copyIn;
+
+    private final StringBuilder buffer = new StringBuilder(BUFFER_SIZE);
+
+    private PostgresCopy(CopyIn copyIn) {
+        this.copyIn = copyIn;
+    }
+
+    static boolean isApplicable(Connection conn) throws SQLException {
+        return AVAILABLE && conn.isWrapperFor(PGConnection.class);
+    }
+
+    static <T> void copy(
+        Connection conn,
+        String sql,
+        Iterator<Map.Entry<RevisionedId, T>> payloads,
+        TableResolver<T> resolver
+    ) throws SQLException {
+        CopyIn copyIn = conn.unwrap(PGConnection.class).getCopyAPI().copyIn(sql);
+        try {
+            PostgresCopy writer = new PostgresCopy(copyIn);
+            while (payloads.hasNext()) {
+                Map.Entry<RevisionedId, T> payload = payloads.next();
+                writer.write(payload.getKey().getId());
+                writer.buffer.append('\t').append(payload.getKey().getRevision());
+                writer.buffer.append('\t').append(payload.getKey().isDeleted() ? 't' : 'f');
+                writer.buffer.append('\t');
+                if (resolver.isStreaming()) {
+                    if (payload.getValue() == null) {
+                        writer.buffer.append("\\N");
+                    } else {
+                        resolver.writePayload(payload.getValue(), writer);
+                    }
+                } else {
+                    String value = resolver.toPayload(payload.getValue());
+                    if (value == null) {
+                        writer.buffer.append("\\N");
+                    } else {
+                        writer.write(value);
+                    }
+                }
+                writer.buffer.append('\n');
+                if (writer.buffer.length() >= BUFFER_SIZE) {
+                    writer.flush();
+                }
+            }
+            writer.flush();
+            copyIn.endCopy();
+        } catch (IOException e) {
+            if (e.getCause() instanceof SQLException) {
+                throw (SQLException) e.getCause();
+            }
+            throw new SQLException("Failed to write payload", e);
+        } finally {
+            if (copyIn.isActive()) {
+                copyIn.cancelCopy();
+            }
+        }
+    }
+
+    @Override
+    public void write(char[] characters, int offset, int length) throws IOException {
+        for (int index = offset; index < offset + length; index++) {
+            escape(characters[index]);
+        }
+    }
+
+    @Override
+    public void write(String value, int offset, int length) throws IOException {
+        for (int index = offset; index < offset + length; index++) {
+            escape(value.charAt(index));
+        }
+    }
+
+    @Override
+    public void write(int character) throws IOException {
+        escape((char) character);
+    }
+
+    private void escape(char character) throws IOException {
+        switch (character) {
+        case '\\':
+            buffer.append("\\\\");
+            break;
+        case '\n':
+            buffer.append("\\n");
+            break;
+        case '\r':
+            buffer.append("\\r");
+            break;
+        case '\t':
+            buffer.append("\\t");
+            break;
+        default:
+            buffer.append(character);
+        }
+        if (buffer.length() >= BUFFER_SIZE) {
+            flush();
+        }
+    }
+
+    @Override
+    public void flush() throws IOException {
+        int length = buffer.length();
+        if (length > 0 && Character.isHighSurrogate(buffer.charAt(length - 1))) {
+            length--;
+        }
+        if (length == 0) {
+            return;
+        }
+        byte[] bytes = buffer.substring(0, length).getBytes(StandardCharsets.UTF_8);
+        try {
+            copyIn.writeToCopy(bytes, 0, bytes.length);
+        } catch (SQLException e) {
+            throw new IOException(e);
+        }
+        buffer.delete(0, length);
+    }
+
+    @Override
+    public void close() { }
+}
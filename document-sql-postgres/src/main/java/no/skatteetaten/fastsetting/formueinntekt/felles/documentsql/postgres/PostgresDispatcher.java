@@ -1,40 +1,72 @@
 package no.skatteetaten.fastsetting.formueinntekt.felles.documentsql.postgres;
 
+import java.io.IOException;
+import java.io.StringWriter;
 import java.sql.Connection;
 import java.sql.PreparedStatement;
+import java.sql.ResultSet;
 import java.sql.SQLException;
+import java.sql.Savepoint;
 import java.sql.Statement;
+import java.sql.Types;
+import java.time.Duration;
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.ListIterator;
 import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
 import java.util.function.Consumer;
 import java.util.function.Function;
+import java.util.function.LongConsumer;
 import java.util.function.Predicate;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
 import javax.sql.DataSource;
 import no.skatteetaten.fastsetting.formueinntekt.felles.documentsql.api.JdbcDispatcher;
+import no.skatteetaten.fastsetting.formueinntekt.felles.documentsql.api.RetentionSupport;
 import no.skatteetaten.fastsetting.formueinntekt.felles.documentsql.api.RevisionedId;
 import no.skatteetaten.fastsetting.formueinntekt.felles.documentsql.api.TableResolver;
 
 class PostgresDispatcher<T> implements JdbcDispatcher<T> {
 
-    private final List<String> create, drop, grant;
-    private final String insert, truncate;
+    private static final String UNIQUE_VIOLATION = "23505";
+
+    private static final int APPEND_ATTEMPTS = 10;
+
+    private final List<String> create, drop, grant, retain, refresh, addPartition, dropPartition, detachPartition;
+    private final String insert, insertIfAbsent, appendLock, append, copy, truncate, staleness;
 
     private final TableResolver<T> resolver;
 
     PostgresDispatcher(
         List<String> create, List<String> drop, List<String> grant,
-        String insert, String truncate, TableResolver<T> resolver
+        String insert, String insertIfAbsent, String appendLock, String append, String copy, String truncate,
+        List<String> refresh, String staleness,
+        List<String> retain,
+        List<String> addPartition, List<String> dropPartition, List<String> detachPartition,
+        TableResolver<T> resolver
     ) {
         this.create = create;
         this.drop = drop;
         this.grant = grant;
         this.insert = insert;
+        this.insertIfAbsent = insertIfAbsent;
+        this.appendLock = appendLock;
+        this.append = append;
+        this.copy = copy;
         this.truncate = truncate;
+        this.refresh = refresh;
+        this.staleness = staleness;
+        this.retain = retain;
+        this.addPartition = addPartition;
+        this.dropPartition = dropPartition;
+        this.detachPartition = detachPartition;
         this.resolver = resolver;
     }
 
@@ -51,8 +83,24 @@ class PostgresDispatcher<T> implements JdbcDispatcher<T> {
             grant.stream().map(statement -> asExecutableStatement(String.format(statement, "[users]"))),
             Stream.of("-- insert"),
             Stream.of(asExecutableStatement(insert)),
+            Stream.of("-- insert if absent"),
+            Stream.of(asExecutableStatement(insertIfAbsent)),
+            Stream.of("-- append"),
+            Stream.of(asExecutableStatement(appendLock), asExecutableStatement(append)),
+            Stream.of("-- load"),
+            Stream.of(asExecutableStatement(copy)),
             Stream.of("-- truncate"),
             Stream.of(asExecutableStatement(truncate)),
+            refresh.isEmpty() ? Stream.<String>empty() : Stream.of("-- refresh"),
+            refresh.stream().map(PostgresDispatcher::asExecutableStatement),
+            Stream.of("-- retain"),
+            retain.stream().map(PostgresDispatcher::asExecutableStatement),
+            addPartition.isEmpty() ? Stream.<String>empty() : Stream.of("-- add partition"),
+            addPartition.stream().map(statement -> asExecutableStatement(String.format(statement, "[partition]", "[from]", "[to]"))),
+            dropPartition.isEmpty() ? Stream.<String>empty() : Stream.of("-- drop partition"),
+            dropPartition.stream().map(statement -> asExecutableStatement(String.format(statement, "[partition]"))),
+            detachPartition.isEmpty() ? Stream.<String>empty() : Stream.of("-- detach partition"),
+            detachPartition.stream().map(statement -> asExecutableStatement(String.format(statement, "[partition]"))),
             Stream.of("-- drop"),
             drop.stream().map(PostgresDispatcher::asExecutableStatement)
         ).flatMap(Function.identity()).collect(Collectors.toList()));
@@ -111,16 +159,148 @@ class PostgresDispatcher<T> implements JdbcDispatcher<T> {
         if (payloads.isEmpty()) {
             return;
         }
-        try (PreparedStatement ps = conn.prepareStatement(insert)) {
+        executeBatch(conn, insert, payloads);
+    }
+
+    @Override
+    public Map<RevisionedId, Boolean> insertIfAbsent(Connection conn, Map<RevisionedId, T> payloads) throws SQLException {
+        if (payloads.isEmpty()) {
+            return Collections.emptyMap();
+        }
+        int[] counts = executeBatch(conn, insertIfAbsent, payloads);
+        Map<RevisionedId, Boolean> inserted = new LinkedHashMap<>();
+        int index = 0;
+        for (RevisionedId id : payloads.keySet()) {
+            if (counts[index] == Statement.SUCCESS_NO_INFO) {
+                throw new IllegalStateException("Driver did not report if " + id + " was inserted, batch rewriting must be disabled");
+            }
+            inserted.put(id, counts[index++] > 0);
+        }
+        return inserted;
+    }
+
+    @Override
+    public List<RevisionedId> append(Connection conn, Map<String, T> payloads, boolean deleted) throws SQLException {
+        if (payloads.isEmpty()) {
+            return Collections.emptyList();
+        } else if (conn.getTransactionIsolation() > Connection.TRANSACTION_READ_COMMITTED) {
+            throw new IllegalStateException("Appending requires read committed isolation to observe concurrently allocated revisions");
+        }
+        boolean autoCommit = conn.getAutoCommit();
+        conn.setAutoCommit(false);
+        try {
+            for (int attempt = 1; ; attempt++) {
+                Savepoint savepoint = autoCommit ? null : conn.setSavepoint();
+                try {
+                    try (PreparedStatement ps = conn.prepareStatement(appendLock)) {
+                        ps.setArray(1, conn.createArrayOf("text", payloads.keySet().toArray()));
+                        ps.executeQuery().close();
+                    }
+                    List<RevisionedId> ids = new ArrayList<>(payloads.size());
+                    // Unquoted identifiers are folded to lower case by Postgres.
+                    try (PreparedStatement ps = conn.prepareStatement(append, new String[] {"revision"})) {
+                        for (Map.Entry<String, T> payload : payloads.entrySet()) {
+                            ps.setString(1, payload.getKey());
+                            ps.setString(2, payload.getKey());
+                            bindPayload(ps, new RevisionedId(payload.getKey(), 0, deleted), payload.getValue());
+                            ps.addBatch();
+                        }
+                        ps.executeBatch();
+                        try (ResultSet rs = ps.getGeneratedKeys()) {
+                            for (String id : payloads.keySet()) {
+                                if (!rs.next()) {
+                                    throw new IllegalStateException("Driver did not return allocated revision for " + id);
+                                }
+                                ids.add(new RevisionedId(id, rs.getLong(1), deleted));
+                            }
+                        }
+                    }
+                    if (autoCommit) {
+                        conn.commit();
+                    } else {
+                        conn.releaseSavepoint(savepoint);
+                    }
+                    return ids;
+                } catch (SQLException e) {
+                    if (autoCommit) {
+                        conn.rollback();
+                    } else {
+                        conn.rollback(savepoint);
+                    }
+                    if (attempt == APPEND_ATTEMPTS || !Objects.equals(e.getSQLState(), UNIQUE_VIOLATION)) {
+                        throw e;
+                    }
+                }
+            }
+        } finally {
+            conn.setAutoCommit(autoCommit);
+        }
+    }
+
+    private int[] executeBatch(Connection conn, String sql, Map<RevisionedId, T> payloads) throws SQLException {
+        try (PreparedStatement ps = conn.prepareStatement(sql)) {
             for (Map.Entry<RevisionedId, T> payload : payloads.entrySet()) {
-                ps.setString(1, payload.getKey().getId());
-                ps.setLong(2, payload.getKey().getRevision());
-                ps.setBoolean(3, payload.getKey().isDeleted());
-                ps.setString(4, resolver.toPayload(payload.getValue()));
-                resolver.registerAdditionalValues(5, ps, payload.getValue());
+                bind(ps, payload.getKey(), payload.getValue());
                 ps.addBatch();
             }
-            ps.executeBatch();
+            return ps.executeBatch();
+        }
+    }
+
+    @Override
+    public void insertAll(Connection conn, Iterator<Map.Entry<RevisionedId, T>> payloads, int batchSize) throws SQLException {
+        if (batchSize < 1) {
+            throw new IllegalArgumentException("Batch size must be positive: " + batchSize);
+        }
+        try (PreparedStatement ps = conn.prepareStatement(insert)) {
+            int count = 0;
+            while (payloads.hasNext()) {
+                Map.Entry<RevisionedId, T> payload = payloads.next();
+                bind(ps, payload.getKey(), payload.getValue());
+                ps.addBatch();
+                if (++count == batchSize) {
+                    ps.executeBatch();
+                    count = 0;
+                }
+            }
+            if (count > 0) {
+                ps.executeBatch();
+            }
+        }
+    }
+
+    private void bind(PreparedStatement ps, RevisionedId id, T value) throws SQLException {
+        ps.setString(1, id.getId());
+        ps.setLong(2, id.getRevision());
+        bindPayload(ps, id, value);
+    }
+
+    private void bindPayload(PreparedStatement ps, RevisionedId id, T value) throws SQLException {
+        ps.setBoolean(3, id.isDeleted());
+        if (resolver.isStreaming()) {
+            if (value == null) {
+                ps.setNull(4, Types.VARCHAR);
+            } else {
+                StringWriter writer = new StringWriter();
+                try {
+                    resolver.writePayload(value, writer);
+                } catch (IOException e) {
+                    throw new SQLException("Failed to write payload for " + id, e);
+                }
+                ps.setString(4, writer.toString());
+            }
+        } else {
+            ps.setString(4, resolver.toPayload(value));
+        }
+        resolver.registerAdditionalValues(5, ps, value);
+    }
+
+    @Override
+    public void load(Connection conn, Iterator<Map.Entry<RevisionedId, T>> payloads) throws SQLException {
+        if (resolver.getAdditionalColumns().isEmpty() && PostgresCopy.isApplicable(conn)) {
+            PostgresCopy.copy(conn, copy, payloads, resolver);
+        } else {
+            insertAll(conn, payloads, 1000);
         }
     }
 
@@ -129,5 +309,83 @@ class PostgresDispatcher<T> implements JdbcDispatcher<T> {
         try (Connection conn = dataSource.getConnection(); Statement stmt = conn.createStatement()) {
             stmt.execute(truncate);
         }
+        refresh(dataSource);
+    }
+
+    @Override
+    public void refresh(DataSource dataSource) throws SQLException {
+        if (refresh.isEmpty()) {
+            return;
+        }
+        execute(dataSource, refresh);
+    }
+
+    @Override
+    public long retain(DataSource dataSource, int revisions, int chunk, LongConsumer progress) throws SQLException {
+        return RetentionSupport.retain(dataSource, retain.get(0), retain.get(1), retain.get(2), revisions, chunk, progress);
+    }
+
+    @Override
+    public void addPartition(DataSource dataSource, String partition, String from, String to) throws SQLException {
+        execute(dataSource, toPartitionStatements(addPartition, partition, from == null ? "MINVALUE" : toBound(from), toBound(to)));
+    }
+
+    @Override
+    public void dropPartition(DataSource dataSource, String partition) throws SQLException {
+        execute(dataSource, toPartitionStatements(dropPartition, partition));
+    }
+
+    @Override
+    public void detachPartition(DataSource dataSource, String partition) throws SQLException {
+        execute(dataSource, toPartitionStatements(detachPartition, partition));
+    }
+
+    private static String toBound(String bound) {
+        if (bound == null || !bound.matches("-?[0-9]+")) {
+            throw new IllegalArgumentException("Illegal revision bound: " + bound);
+        }
+        return bound;
+    }
+
+    private static List<String> toPartitionStatements(List<String> statements, String partition, Object... bounds) {
+        if (statements.isEmpty()) {
+            throw new IllegalStateException("Dispatcher is not partitioned");
+        } else if (!partition.matches("[A-Za-z0-9_]+")) {
+            throw new IllegalArgumentException("Illegal partition name: " + partition);
+        }
+        Object[] arguments = Stream.concat(Stream.of(partition), Stream.of(bounds)).toArray();
+        return statements.stream().map(statement -> String.format(statement, arguments)).collect(Collectors.toList());
+    }
+
+    private static void execute(DataSource dataSource, List<String> statements) throws SQLException {
+        try (Connection conn = dataSource.getConnection()) {
+            boolean autoCommit = conn.getAutoCommit();
+            conn.setAutoCommit(false);
+            try (Statement stmt = conn.createStatement()) {
+                for (String sql : statements) {
+                    stmt.execute(sql);
+                }
+                conn.commit();
+            } catch (SQLException e) {
+                conn.rollback();
+                throw e;
+            } finally {
+                conn.setAutoCommit(autoCommit);
+            }
+        }
+    }
+
+    @Override
+    public Optional<Duration> getStaleness(DataSource dataSource) throws SQLException {
+        if (staleness == null) {
+            return Optional.empty();
+        }
+        try (Connection conn = dataSource.getConnection(); Statement stmt = conn.createStatement(); ResultSet rs = stmt.executeQuery(staleness)) {
+            if (!rs.next()) {
+                return Optional.empty();
+            }
+            double seconds = rs.getDouble(1);
+            return rs.wasNull() ? Optional.empty() : Optional.of(Duration.ofNanos((long) (seconds * 1_000_000_000L)));
+        }
     }
 }
@@ -23,25 +23,36 @@ public class PostgresDispatcherFactory implements JdbcDispatcherFactory {
 
     private final PostgresSqlEmitter emitter;
 
+    private final PostgresMaintenance maintenance;
+
     private final Function<Class<?>, String> typeResolver;
 
     private final Function<Set<String>, Map<String, String>> namespacePrefixResolver;
 
-    private final boolean meta;
+    private final String partitioning;
+
+    private final boolean meta, expressionIndices, currentTable, latestOnly;
 
     private final Function<String, List<String>> onCreation, onDrop;
 
     private PostgresDispatcherFactory(
         PostgresSqlEmitter emitter,
+        PostgresMaintenance maintenance,
         Function<Set<String>, Map<String, String>> namespacePrefixResolver,
         Function<Class<?>, String> typeResolver,
-        boolean meta,
+        String partitioning,
+        boolean meta, boolean expressionIndices, boolean currentTable, boolean latestOnly,
         Function<String, List<String>> onCreation, Function<String, List<String>> onDrop
     ) {
         this.emitter = emitter;
+        this.maintenance = maintenance;
         this.namespacePrefixResolver = namespacePrefixResolver;
         this.typeResolver = typeResolver;
+        this.partitioning = partitioning;
         this.meta = meta;
+        this.expressionIndices = expressionIndices;
+        this.currentTable = currentTable;
+        this.latestOnly = latestOnly;
         this.onCreation = onCreation;
         this.onDrop = onDrop;
     }
@@ -62,23 +73,49 @@ public class PostgresDispatcherFactory implements JdbcDispatcherFactory {
 
     private static PostgresDispatcherFactory of(PostgresSqlEmitter emitter, Function<Set<String>, Map<String, String>> namespacePrefixResolver) {
         return new PostgresDispatcherFactory(
-            emitter, namespacePrefixResolver, new PostgresTypeResolver(true),
-            true,
+            emitter, PostgresMaintenance.REFRESH, namespacePrefixResolver, new PostgresTypeResolver(true),
+            null,
+            true, false, false, false,
             base -> Collections.emptyList(), base -> Collections.emptyList()
         );
     }
 
     public PostgresDispatcherFactory withTypeResolver(Function<Class<?>, String> typeResolver) {
-        return new PostgresDispatcherFactory(emitter, namespacePrefixResolver, typeResolver, meta, onCreation, onDrop);
+        return new PostgresDispatcherFactory(emitter, maintenance, namespacePrefixResolver, typeResolver, partitioning, meta, expressionIndices, currentTable, latestOnly, onCreation, onDrop);
     }
 
     public PostgresDispatcherFactory withMeta(boolean meta) {
-        return new PostgresDispatcherFactory(emitter, namespacePrefixResolver, typeResolver, meta, onCreation, onDrop);
+        return new PostgresDispatcherFactory(emitter, maintenance, namespacePrefixResolver, typeResolver, partitioning, meta, expressionIndices, currentTable, latestOnly, onCreation, onDrop);
+    }
+
+    public PostgresDispatcherFactory withExpressionIndices(boolean expressionIndices) {
+        return new PostgresDispatcherFactory(emitter, maintenance, namespacePrefixResolver, typeResolver, partitioning, meta, expressionIndices, currentTable, latestOnly, onCreation, onDrop);
+    }
+
+    public PostgresDispatcherFactory withMaintenance(PostgresMaintenance maintenance) {
+        return new PostgresDispatcherFactory(emitter, maintenance, namespacePrefixResolver, typeResolver, partitioning, meta, expressionIndices, currentTable, latestOnly, onCreation, onDrop);
+    }
+
+    public PostgresDispatcherFactory withCurrentTable(boolean currentTable) {
+        return new PostgresDispatcherFactory(emitter, maintenance, namespacePrefixResolver, typeResolver, partitioning, meta, expressionIndices, currentTable, latestOnly, onCreation, onDrop);
+    }
+
+    public PostgresDispatcherFactory withLatestOnly(boolean latestOnly) {
+        return new PostgresDispatcherFactory(emitter, maintenance, namespacePrefixResolver, typeResolver, partitioning, meta, expressionIndices, currentTable, latestOnly, onCreation, onDrop);
+    }
+
+    public PostgresDispatcherFactory withPartitioning(String partitioning) {
+        // Postgres requires the partition key to be part of any unique constraint. Partitioning by another column
+        // would therefore weaken the primary key such that (ID, REVISION) is no longer unique.
+        if (partitioning != null && !partitioning.equals(REVISION)) {
+            throw new IllegalStateException("Postgres document tables can only be partitioned by " + REVISION + ": " + partitioning);
+        }
+        return new PostgresDispatcherFactory(emitter, maintenance, namespacePrefixResolver, typeResolver, partitioning, meta, expressionIndices, currentTable, latestOnly, onCreation, onDrop);
     }
 
     @Override
     public PostgresDispatcherFactory withOnCreation(Function<String, Collection<String>> onCreation) {
-        return new PostgresDispatcherFactory(emitter, namespacePrefixResolver, typeResolver, meta, base -> Stream.concat(
+        return new PostgresDispatcherFactory(emitter, maintenance, namespacePrefixResolver, typeResolver, partitioning, meta, expressionIndices, currentTable, latestOnly, base -> Stream.concat(
             this.onCreation.apply(base).stream(),
             onCreation.apply(base).stream()
         ).collect(Collectors.toList()), onDrop);
@@ -86,7 +123,7 @@ public class PostgresDispatcherFactory implements JdbcDispatcherFactory {
 
     @Override
     public PostgresDispatcherFactory withOnDrop(Function<String, Collection<String>> onDrop) {
-        return new PostgresDispatcherFactory(emitter, namespacePrefixResolver, typeResolver, meta, onCreation, base -> Stream.concat(
+        return new PostgresDispatcherFactory(emitter, maintenance, namespacePrefixResolver, typeResolver, partitioning, meta, expressionIndices, currentTable, latestOnly, onCreation, base -> Stream.concat(
             this.onDrop.apply(base).stream(),
             onDrop.apply(base).stream()
         ).collect(Collectors.toList()));
@@ -110,8 +147,12 @@ public class PostgresDispatcherFactory implements JdbcDispatcherFactory {
             + tableResolver.getAdditionalColumns().entrySet().stream()
             .map(entry -> entry.getKey() + " " + entry.getValue() + ", ")
             .collect(Collectors.joining())
-            + "CONSTRAINT " + base + "_PK PRIMARY KEY (" + ID + ", " + REVISION + "))");
+            + "CONSTRAINT " + base + "_PK PRIMARY KEY (" + ID + ", " + REVISION + "))"
+            + (partitioning == null ? "" : " PARTITION BY RANGE (" + partitioning + ")"));
         objects.put(base + "_RAW", "TABLE");
+        if (partitioning != null) {
+            ddl.add("CREATE TABLE " + base + "_RAW_DEF PARTITION OF " + base + "_RAW DEFAULT");
+        }
         Set<String> indices = new HashSet<>(Collections.singleton(base + "_IDX"));
         for (String column : tableResolver.getAdditionalColumns().keySet()) {
             String index = nameResolver.resolve(Arrays.asList(base, column), indices::contains);
@@ -120,21 +161,73 @@ public class PostgresDispatcherFactory implements JdbcDispatcherFactory {
             }
             ddl.add("CREATE INDEX " + index + "_IDX ON " + base + "_RAW (" + column + ")");
         }
-        for (String suffix : Arrays.asList("MIN", "MAX")) {
-            ddl.add("CREATE VIEW " + base + "_" + suffix + " AS "
-                + "SELECT " + ID + ", " + suffix + "(" + REVISION + ") " + REVISION + " "
+        if (currentTable) {
+            ddl.add("CREATE TABLE " + base + "_CUR ("
+                + ID + " VARCHAR(250) NOT NULL, "
+                + "MIN_" + REVISION + " BIGINT NOT NULL, "
+                + REVISION + " BIGINT NOT NULL, "
+                + DELETED + " BOOLEAN NOT NULL, "
+                + "CONSTRAINT " + base + "_CPK PRIMARY KEY (" + ID + "))");
+            objects.put(base + "_CUR", "TABLE");
+            ddl.add("CREATE FUNCTION " + base + "_CRF() "
+                + "RETURNS TRIGGER LANGUAGE plpgsql "
+                + "AS $$ "
+                + "BEGIN "
+                + "IF TG_OP <> 'INSERT' THEN "
+                + "DELETE FROM " + base + "_CUR WHERE " + ID + " = OLD." + ID + "; "
+                + "INSERT INTO " + base + "_CUR (" + ID + ", MIN_" + REVISION + ", " + REVISION + ", " + DELETED + ") "
+                + "SELECT " + ID + ", MIN(" + REVISION + "), MAX(" + REVISION + "), "
+                + "(ARRAY_AGG(" + DELETED + " ORDER BY " + REVISION + " DESC))[1] "
                 + "FROM " + base + "_RAW "
-                + "GROUP BY " + ID);
-            objects.put(base + "_" + suffix, "VIEW");
+                + "WHERE " + ID + " = OLD." + ID + " "
+                + "GROUP BY " + ID + "; "
+                + "END IF; "
+                + "IF TG_OP <> 'DELETE' THEN "
+                + "INSERT INTO " + base + "_CUR (" + ID + ", MIN_" + REVISION + ", " + REVISION + ", " + DELETED + ") "
+                + "VALUES (NEW." + ID + ", NEW." + REVISION + ", NEW." + REVISION + ", NEW." + DELETED + ") "
+                + "ON CONFLICT (" + ID + ") DO UPDATE SET "
+                + "MIN_" + REVISION + " = LEAST(" + base + "_CUR.MIN_" + REVISION + ", EXCLUDED.MIN_" + REVISION + "), "
+                + REVISION + " = GREATEST(" + base + "_CUR." + REVISION + ", EXCLUDED." + REVISION + "), "
+                + DELETED + " = CASE WHEN EXCLUDED." + REVISION + " >= " + base + "_CUR." + REVISION + " "
+                + "THEN EXCLUDED." + DELETED + " "
+                + "ELSE " + base + "_CUR." + DELETED + " END; "
+                + "END IF; "
+                + "RETURN NULL; "
+                + "END $$;");
+            objects.put(base + "_CRF", "FUNCTION");
+            ddl.add("CREATE TRIGGER " + base + "_CRG "
+                + "AFTER UPDATE OR INSERT OR DELETE "
+                + "ON " + base + "_RAW "
+                + "FOR EACH ROW "
+                + "EXECUTE PROCEDURE " + base + "_CRF()");
+            objects.put(base + "_CRG ON " + base + "_RAW", "TRIGGER");
+            for (String suffix : Arrays.asList("MIN", "MAX")) {
+                ddl.add("CREATE VIEW " + base + "_" + suffix + " AS "
+                    + "SELECT " + ID + ", " + (suffix.equals("MIN") ? "MIN_" : "") + REVISION + " " + REVISION + " "
+                    + "FROM " + base + "_CUR");
+                objects.put(base + "_" + suffix, "VIEW");
+            }
+            ddl.add("CREATE VIEW " + base + "_NOW AS "
+                + "SELECT " + ID + ", " + REVISION + " "
+                + "FROM " + base + "_CUR "
+                + "WHERE " + DELETED + " = false");
+        } else {
+            for (String suffix : Arrays.asList("MIN", "MAX")) {
+                ddl.add("CREATE VIEW " + base + "_" + suffix + " AS "
+                    + "SELECT " + ID + ", " + suffix + "(" + REVISION + ") " + REVISION + " "
+                    + "FROM " + base + "_RAW "
+                    + "GROUP BY " + ID);
+                objects.put(base + "_" + suffix, "VIEW");
+            }
+            ddl.add("CREATE VIEW " + base + "_NOW AS "
+                + "SELECT " + ID + ", MAX(" + REVISION + ") " + REVISION + " "
+                + "FROM " + base + "_RAW "
+                + "GROUP BY " + ID + " "
+                + "INTERSECT "
+                + "SELECT " + ID + ", " + REVISION + " "
+                + "FROM " + base + "_RAW "
+                + "WHERE " + DELETED + " = false");
         }
-        ddl.add("CREATE VIEW " + base + "_NOW AS "
-            + "SELECT " + ID + ", MAX(" + REVISION + ") " + REVISION + " "
-            + "FROM " + base + "_RAW "
-            + "GROUP BY " + ID + " "
-            + "INTERSECT "
-            + "SELECT " + ID + ", " + REVISION + " "
-            + "FROM " + base + "_RAW "
-            + "WHERE " + DELETED + " = false");
         objects.put(base + "_NOW", "VIEW");
         List<String> directColumns = Stream.concat(
             Stream.of(ID, REVISION, DELETED, PAYLOAD),
@@ -150,6 +243,9 @@ public class PostgresDispatcherFactory implements JdbcDispatcherFactory {
                 throw new IllegalStateException("View name already in use: " + view);
             }
             Set<String> reserved = new HashSet<>(directColumns);
+            if (maintenance != PostgresMaintenance.REFRESH) {
+                reserved.add(ORDINAL);
+            }
             Map<List<PathElement>, String> columns = properties.keySet().stream().collect(Collectors.toMap(
                 Function.identity(), path -> {
                     String column = nameResolver.resolve(PathElement.dense(path), reserved::contains);
@@ -177,6 +273,7 @@ public class PostgresDispatcherFactory implements JdbcDispatcherFactory {
                             base, alias,
                             paths, directColumns, current, columns,
                             ddl, viewMeta, objects,
+                            maintenance, expressionIndices, latestOnly,
                             namespacePrefixResolver,
                             typeResolver
                         );
@@ -188,11 +285,35 @@ public class PostgresDispatcherFactory implements JdbcDispatcherFactory {
                     base, view,
                     paths, directColumns, properties, columns,
                     ddl, viewMeta, objects,
+                    maintenance, expressionIndices, latestOnly,
                     namespacePrefixResolver,
                     typeResolver
                 );
             }
         });
+        List<String> refresh = objects.entrySet().stream()
+            .filter(entry -> maintenance == PostgresMaintenance.DEFERRED && entry.getValue().equals("MATERIALIZED VIEW"))
+            .map(entry -> "REFRESH MATERIALIZED VIEW CONCURRENTLY " + entry.getKey())
+            .collect(Collectors.toList());
+        if (!refresh.isEmpty()) {
+            ddl.add("CREATE TABLE " + base + "_DRT (MARKED TIMESTAMP WITH TIME ZONE NOT NULL)");
+            objects.put(base + "_DRT", "TABLE");
+            ddl.add("CREATE FUNCTION " + base + "_DRF() "
+                + "RETURNS TRIGGER LANGUAGE plpgsql "
+                + "AS $$ "
+                + "BEGIN "
+                + "INSERT INTO " + base + "_DRT (MARKED) "
+                + "SELECT NOW() WHERE NOT EXISTS (SELECT 1 FROM " + base + "_DRT); "
+                + "RETURN NULL; "
+                + "END $$;");
+            objects.put(base + "_DRF", "FUNCTION");
+            ddl.add("CREATE TRIGGER " + base + "_DRG "
+                + "AFTER UPDATE OR INSERT OR DELETE OR TRUNCATE "
+                + "ON " + base + "_RAW "
+                + "FOR EACH STATEMENT "
+                + "EXECUTE PROCEDURE " + base + "_DRF()");
+            objects.put(base + "_DRG ON " + base + "_RAW", "TRIGGER");
+        }
         if (meta) {
             ddl.add("CREATE VIEW " + base + "_MTA AS " + Stream.concat(
                 Stream.of("SELECT NULL AS PATH, NULL AS OBJECT, NULL AS NAME WHERE 0 = 1"),
@@ -203,29 +324,114 @@ public class PostgresDispatcherFactory implements JdbcDispatcherFactory {
             ).collect(Collectors.joining(" UNION ALL ")));
             objects.put(base + "_MTA", "VIEW");
         }
+        List<String> repair = new ArrayList<>();
+        if (currentTable) {
+            repair.add("DELETE FROM " + base + "_CUR "
+                + "WHERE " + ID + " IN (SELECT " + ID + " FROM " + base + "_RPR)");
+            repair.add("INSERT INTO " + base + "_CUR (" + ID + ", MIN_" + REVISION + ", " + REVISION + ", " + DELETED + ") "
+                + "SELECT " + ID + ", MIN(" + REVISION + "), MAX(" + REVISION + "), "
+                + "(ARRAY_AGG(" + DELETED + " ORDER BY " + REVISION + " DESC))[1] "
+                + "FROM " + base + "_RAW "
+                + "WHERE " + ID + " IN (SELECT " + ID + " FROM " + base + "_RPR) "
+                + "GROUP BY " + ID);
+        }
+        objects.forEach((object, type) -> {
+            if (type.equals("TABLE") && object.endsWith("_TAB")) {
+                repair.add("DELETE FROM " + object + " SHREDDED "
+                    + "WHERE SHREDDED." + ID + " IN (SELECT " + ID + " FROM " + base + "_RPR) "
+                    + "AND NOT EXISTS ("
+                    + "SELECT 1 FROM " + base + "_RAW SOURCE "
+                    + "WHERE SOURCE." + ID + " = SHREDDED." + ID + " "
+                    + "AND SOURCE." + REVISION + " = SHREDDED." + REVISION
+                    + ")");
+            } else if (type.equals("MATERIALIZED VIEW") && maintenance != PostgresMaintenance.DEFERRED) {
+                repair.add("REFRESH MATERIALIZED VIEW " + object);
+            }
+        });
+        if (latestOnly && objects.entrySet().stream().anyMatch(entry -> entry.getValue().equals("TABLE") && entry.getKey().endsWith("_TAB"))) {
+            repair.add("UPDATE " + base + "_RAW "
+                + "SET " + ID + " = " + ID + " "
+                + "WHERE (" + ID + ", " + REVISION + ") IN ("
+                + "SELECT " + ID + ", MAX(" + REVISION + ") "
+                + "FROM " + base + "_RAW "
+                + "WHERE " + ID + " IN (SELECT " + ID + " FROM " + base + "_RPR) "
+                + "GROUP BY " + ID
+                + ")");
+        }
+        if (!refresh.isEmpty()) {
+            repair.add("INSERT INTO " + base + "_DRT (MARKED) "
+                + "SELECT NOW() WHERE NOT EXISTS (SELECT 1 FROM " + base + "_DRT)");
+        }
         emitter.makeIndex(base, ddl);
         ddl.addAll(onCreation.apply(base + "_RAW"));
+        String columns = Stream.concat(
+            Stream.of(ID, REVISION, DELETED, PAYLOAD),
+            tableResolver.getAdditionalColumns().keySet().stream()
+        ).collect(Collectors.joining(", "));
+        String values = Stream.concat(
+            Stream.of("?", emitter.getValueVariable()),
+            Collections.nCopies(tableResolver.getAdditionalColumns().size(), "?").stream()
+        ).collect(Collectors.joining(", "));
+        String insert = "INSERT INTO " + base + "_RAW (" + columns + ") VALUES (?, ?, " + values + ")";
+        String append = "INSERT INTO " + base + "_RAW (" + columns + ") VALUES (?, "
+            + "(SELECT COALESCE(MAX(" + REVISION + "), 0) + 1 FROM " + base + "_RAW WHERE " + ID + " = ?), "
+            + values + ")";
         return new PostgresDispatcher<>(
             ddl,
             Stream.of(
                 objects.entrySet().stream().map(entry -> "DROP " + entry.getValue() + " " + entry.getKey()),
                 onDrop.apply(base + "_RAW").stream()
             ).flatMap(Function.identity()).collect(Collectors.toList()),
-            objects.keySet().stream()
-                .map(object -> "GRANT SELECT ON " + object + " TO %s")
+            objects.entrySet().stream()
+                .filter(entry -> entry.getValue().equals("TABLE") || entry.getValue().endsWith("VIEW"))
+                .map(entry -> "GRANT SELECT ON " + entry.getKey() + " TO %s")
                 .collect(Collectors.toList()),
-            "INSERT INTO " + base + "_RAW (" +
-                Stream.concat(
-                    Stream.of(ID, REVISION, DELETED, PAYLOAD),
-                    tableResolver.getAdditionalColumns().keySet().stream()
-                ).collect(Collectors.joining(", "))
-                + ") VALUES (" +
-                Stream.concat(
-                    Stream.of("?", "?", "?", emitter.getValueVariable()),
-                    Collections.nCopies(tableResolver.getAdditionalColumns().size(), "?").stream()
-                ).collect(Collectors.joining(", "))
-                + ")",
-            "TRUNCATE TABLE " + base + "_RAW",
+            insert,
+            insert + " ON CONFLICT (" + ID + ", " + REVISION + ") DO NOTHING",
+            "SELECT PG_ADVISORY_XACT_LOCK(HASHTEXT('" + base + "_RAW'), HASHTEXT(LOCKED." + ID + ")) "
+                + "FROM UNNEST(?::TEXT[]) AS LOCKED(" + ID + ") "
+                + "ORDER BY HASHTEXT(LOCKED." + ID + ")",
+            append,
+            "COPY " + base + "_RAW (" + ID + ", " + REVISION + ", " + DELETED + ", " + PAYLOAD + ") FROM STDIN",
+            objects.entrySet().stream()
+                .filter(entry -> entry.getValue().equals("TABLE"))
+                .map(Map.Entry::getKey)
+                .collect(Collectors.joining(", ", "TRUNCATE TABLE ", "")),
+            refresh.isEmpty() ? refresh : Stream.concat(
+                Stream.of("DELETE FROM " + base + "_DRT"),
+                refresh.stream()
+            ).collect(Collectors.toList()),
+            refresh.isEmpty() ? null : "SELECT EXTRACT(EPOCH FROM CLOCK_TIMESTAMP() - MIN(MARKED)) FROM " + base + "_DRT",
+            Arrays.asList(
+                "SELECT MIN(" + ID + ") FROM " + base + "_RAW",
+                "SELECT COUNT(*), MAX(" + ID + ") "
+                    + "FROM (SELECT DISTINCT " + ID + " FROM " + base + "_RAW WHERE " + ID + " >= ? ORDER BY " + ID + " LIMIT ?) CHUNK",
+                "DELETE FROM " + base + "_RAW SUPERSEDED "
+                    + "WHERE SUPERSEDED." + ID + " BETWEEN ? AND ? "
+                    + "AND SUPERSEDED." + REVISION + " < ("
+                    + "SELECT RETAINED." + REVISION + " FROM " + base + "_RAW RETAINED "
+                    + "WHERE RETAINED." + ID + " = SUPERSEDED." + ID + " "
+                    + "ORDER BY RETAINED." + REVISION + " DESC "
+                    + "OFFSET ? LIMIT 1"
+                    + ")"
+            ),
+            partitioning == null ? Collections.emptyList() : Collections.singletonList(
+                "CREATE TABLE " + base + "_RAW_%1$s PARTITION OF " + base + "_RAW FOR VALUES FROM (%2$s) TO (%3$s)"
+            ),
+            partitioning == null ? Collections.emptyList() : Stream.concat(
+                Stream.of(
+                    "CREATE TEMPORARY TABLE " + base + "_RPR ON COMMIT DROP AS SELECT DISTINCT " + ID + " FROM " + base + "_RAW_%1$s",
+                    "DROP TABLE " + base + "_RAW_%1$s"
+                ),
+                repair.stream()
+            ).collect(Collectors.toList()),
+            partitioning == null ? Collections.emptyList() : Stream.concat(
+                Stream.of(
+                    "CREATE TEMPORARY TABLE " + base + "_RPR ON COMMIT DROP AS SELECT DISTINCT " + ID + " FROM " + base + "_RAW_%1$s",
+                    "ALTER TABLE " + base + "_RAW DETACH PARTITION " + base + "_RAW_%1$s"
+                ),
+                repair.stream()
+            ).collect(Collectors.toList()),
             tableResolver
         );
     }
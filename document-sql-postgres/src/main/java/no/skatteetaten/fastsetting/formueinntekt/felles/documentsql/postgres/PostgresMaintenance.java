@@ -0,0 +1,10 @@
+package no.skatteetaten.fastsetting.formueinntekt.felles.documentsql.postgres;
+
+public enum PostgresMaintenance {
+
+    REFRESH,
+
+    INCREMENTAL,
+
+    DEFERRED
+}
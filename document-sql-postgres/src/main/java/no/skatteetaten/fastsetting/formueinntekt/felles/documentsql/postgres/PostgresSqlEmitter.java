@@ -1,6 +1,7 @@
 package no.skatteetaten.fastsetting.formueinntekt.felles.documentsql.postgres;
 
 import java.util.Collection;
+import java.util.Comparator;
 import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
@@ -28,6 +29,9 @@ enum PostgresSqlEmitter {
             List<String> ddl,
             Map<String, Map<String, String>> viewMeta,
             Map<String, String> objects,
+            PostgresMaintenance maintenance,
+            boolean expressionIndices,
+            boolean latestOnly,
             Function<Set<String>, Map<String, String>> namespacePrefixResolver,
             Function<Class<?>, String> typeResolver
         ) {
@@ -65,38 +69,83 @@ enum PostgresSqlEmitter {
                         }
                     }).collect(Collectors.joining(", ", "XMLNAMESPACES(", "), "));
             }
-            ddl.add("CREATE FUNCTION " + name + "_RFS() "
-                    + "RETURNS TRIGGER LANGUAGE plpgsql "
-                    + "AS $$ "
-                    + "BEGIN "
-                    + "REFRESH MATERIALIZED VIEW " + name + "; "
-                    + "RETURN NULL; "
-                    + "END $$;");
-            objects.put(name + "_RFS", "FUNCTION");
-            ddl.add("CREATE MATERIALIZED VIEW " + name + " AS "
-                    + "SELECT " + sqlColumns + " "
-                    + "FROM " + base + "_RAW, "
-                    + "XMLTABLE("
-                    + namespace + "'" + root + "' "
-                    + "PASSING " + PAYLOAD + " "
-                    + "COLUMNS " + xmlColumns + ")");
-            objects.put(name, "MATERIALIZED VIEW");
-            int index = 0;
-            for (String column : Stream.of(
-                    Stream.of(ID + ", " + REVISION),
-                    directColumns.stream().filter(column -> Stream.of(ID, REVISION, DELETED, PAYLOAD).noneMatch(column::equals)),
-                    properties.keySet().stream().map(columns::get).sorted()
-            ).flatMap(Function.identity()).collect(Collectors.toList())) {
-                ddl.add("CREATE INDEX " + name + "_IDX" + (index++) + " "
+            if (maintenance == PostgresMaintenance.INCREMENTAL) {
+                makeTable(
+                    base, name,
+                    directColumns, properties, columns,
+                    Stream.concat(
+                        Stream.of(ORDINAL),
+                        properties.keySet().stream().map(columns::get)
+                    ).collect(Collectors.joining(", ")),
+                    payload -> "XMLTABLE("
+                        + namespace + "'" + root + "' "
+                        + "PASSING " + payload + " "
+                        + "COLUMNS " + ORDINAL + " FOR ORDINALITY, " + xmlColumns + ")",
+                    latestOnly,
+                    ddl, objects,
+                    typeResolver
+                );
+            } else if (maintenance == PostgresMaintenance.DEFERRED) {
+                ddl.add("CREATE MATERIALIZED VIEW " + name + " AS "
+                        + "SELECT " + Stream.of(
+                            directColumns.stream(),
+                            Stream.of(ORDINAL),
+                            properties.keySet().stream().map(columns::get)
+                        ).flatMap(Function.identity()).collect(Collectors.joining(", ")) + " "
+                        + "FROM " + base + "_RAW, "
+                        + "XMLTABLE("
+                        + namespace + "'" + root + "' "
+                        + "PASSING " + PAYLOAD + " "
+                        + "COLUMNS " + ORDINAL + " FOR ORDINALITY, " + xmlColumns + ")"
+                        + (latestOnly ? " WHERE " + latest(base) : ""));
+                objects.put(name, "MATERIALIZED VIEW");
+                ddl.add("CREATE UNIQUE INDEX " + name + "_UNQ "
                         + "ON " + name + " "
-                        + "(" + column + ")");
+                        + "(" + ID + ", " + REVISION + ", " + ORDINAL + ")");
+                int index = 0;
+                for (String column : Stream.concat(
+                        directColumns.stream().filter(column -> Stream.of(ID, REVISION, DELETED, PAYLOAD).noneMatch(column::equals)),
+                        properties.keySet().stream().map(columns::get).sorted()
+                ).collect(Collectors.toList())) {
+                    ddl.add("CREATE INDEX " + name + "_IDX" + (index++) + " "
+                            + "ON " + name + " "
+                            + "(" + column + ")");
+                }
+            } else {
+                ddl.add("CREATE FUNCTION " + name + "_RFS() "
+                        + "RETURNS TRIGGER LANGUAGE plpgsql "
+                        + "AS $$ "
+                        + "BEGIN "
+                        + "REFRESH MATERIALIZED VIEW " + name + "; "
+                        + "RETURN NULL; "
+                        + "END $$;");
+                objects.put(name + "_RFS", "FUNCTION");
+                ddl.add("CREATE MATERIALIZED VIEW " + name + " AS "
+                        + "SELECT " + sqlColumns + " "
+                        + "FROM " + base + "_RAW, "
+                        + "XMLTABLE("
+                        + namespace + "'" + root + "' "
+                        + "PASSING " + PAYLOAD + " "
+                        + "COLUMNS " + xmlColumns + ")"
+                        + (latestOnly ? " WHERE " + latest(base) : ""));
+                objects.put(name, "MATERIALIZED VIEW");
+                int index = 0;
+                for (String column : Stream.of(
+                        Stream.of(ID + ", " + REVISION),
+                        directColumns.stream().filter(column -> Stream.of(ID, REVISION, DELETED, PAYLOAD).noneMatch(column::equals)),
+                        properties.keySet().stream().map(columns::get).sorted()
+                ).flatMap(Function.identity()).collect(Collectors.toList())) {
+                    ddl.add("CREATE INDEX " + name + "_IDX" + (index++) + " "
+                            + "ON " + name + " "
+                            + "(" + column + ")");
+                }
+                ddl.add("CREATE TRIGGER " + name + "_TRG "
+                        + "AFTER UPDATE OR INSERT OR DELETE OR TRUNCATE "
+                        + "ON " + base + "_RAW "
+                        + "FOR EACH STATEMENT "
+                        + "EXECUTE PROCEDURE " + name + "_RFS()");
+                objects.put(name + "_TRG ON " + base + "_RAW", "TRIGGER");
             }
-            ddl.add("CREATE TRIGGER " + name + "_TRG "
-                    + "AFTER UPDATE OR INSERT OR DELETE "
-                    + "ON " + base + "_RAW "
-                    + "FOR EACH STATEMENT "
-                    + "EXECUTE PROCEDURE " + name + "_RFS()");
-            objects.put(name + "_TRG ON " + base + "_RAW", "TRIGGER");
             viewMeta.put(name, properties.keySet().stream().collect(Collectors.toMap(path -> PathElement.full(
                 "/",
                 "/",
@@ -126,6 +175,9 @@ enum PostgresSqlEmitter {
             List<String> ddl,
             Map<String, Map<String, String>> viewMeta,
             Map<String, String> objects,
+            PostgresMaintenance maintenance,
+            boolean expressionIndices,
+            boolean latestOnly,
             Function<Set<String>, Map<String, String>> namespacePrefixResolver,
             Function<Class<?>, String> typeResolver
         ) {
@@ -136,20 +188,65 @@ enum PostgresSqlEmitter {
                 Map.Entry::getKey,
                 entry -> typeResolver.apply(entry.getValue())
             ));
-            String allColumns = Stream.concat(
-                directColumns.stream(),
-                properties.keySet().stream().map(path -> "CAST("
-                    + PathElement.full("EXPLODED.VALUE", "->", element -> "'" + element + "'", path, namespace -> "") + "->>0 "
-                    + "AS " + types.get(path) + ") "
-                    + "AS " + columns.get(path))
-            ).collect(Collectors.joining(", "));
-            ddl.add("CREATE VIEW " + name + " "
-                + "AS "
-                + "SELECT " + allColumns + " "
-                + "FROM " + base + "_RAW, "
-                + "JSONB_PATH_QUERY(" + PAYLOAD + ", "
-                + "'" + root + "') AS EXPLODED(VALUE)");
-            objects.put(name, "VIEW");
+            if (maintenance == PostgresMaintenance.INCREMENTAL) {
+                makeTable(
+                    base, name,
+                    directColumns, properties, columns,
+                    Stream.concat(
+                        Stream.of("EXPLODED." + ORDINAL),
+                        properties.keySet().stream().map(path -> "CAST("
+                            + PathElement.full("EXPLODED.VALUE", "->", element -> "'" + element + "'", path, namespace -> "") + "->>0 "
+                            + "AS " + types.get(path) + ")")
+                    ).collect(Collectors.joining(", ")),
+                    payload -> "JSONB_PATH_QUERY(" + payload + ", '" + root + "') "
+                        + "WITH ORDINALITY AS EXPLODED(VALUE, " + ORDINAL + ")",
+                    latestOnly,
+                    ddl, objects,
+                    typeResolver
+                );
+            } else if (expressionIndices && paths.isEmpty()) {
+                Map<List<PathElement>, String> expressions = properties.keySet().stream().collect(Collectors.toMap(
+                    Function.identity(),
+                    path -> "CAST("
+                        + PathElement.full(PAYLOAD, "->", element -> "'" + element + "'", path, namespace -> "") + "->>0 "
+                        + "AS " + types.get(path) + ")"
+                ));
+                ddl.add("CREATE VIEW " + name + " "
+                    + "AS "
+                    + "SELECT " + Stream.concat(
+                        directColumns.stream(),
+                        properties.keySet().stream().map(path -> expressions.get(path) + " AS " + columns.get(path))
+                    ).collect(Collectors.joining(", ")) + " "
+                    + "FROM " + base + "_RAW "
+                    + "WHERE " + PAYLOAD + " IS NOT NULL"
+                    + (latestOnly ? " AND " + latest(base) : ""));
+                objects.put(name, "VIEW");
+                int index = 0;
+                for (List<PathElement> path : properties.keySet().stream()
+                    .filter(path -> IMMUTABLE_CASTS.contains(types.get(path).replaceAll("\\(.*\\)", "").trim().toUpperCase()))
+                    .sorted(Comparator.comparing(columns::get))
+                    .collect(Collectors.toList())) {
+                    ddl.add("CREATE INDEX " + name + "_IDX" + (index++) + " "
+                        + "ON " + base + "_RAW "
+                        + "((" + expressions.get(path) + "))");
+                }
+            } else {
+                String allColumns = Stream.concat(
+                    directColumns.stream(),
+                    properties.keySet().stream().map(path -> "CAST("
+                        + PathElement.full("EXPLODED.VALUE", "->", element -> "'" + element + "'", path, namespace -> "") + "->>0 "
+                        + "AS " + types.get(path) + ") "
+                        + "AS " + columns.get(path))
+                ).collect(Collectors.joining(", "));
+                ddl.add("CREATE VIEW " + name + " "
+                    + "AS "
+                    + "SELECT " + allColumns + " "
+                    + "FROM " + base + "_RAW, "
+                    + "JSONB_PATH_QUERY(" + PAYLOAD + ", "
+                    + "'" + root + "') AS EXPLODED(VALUE)"
+                    + (latestOnly ? " WHERE " + latest(base) : ""));
+                objects.put(name, "VIEW");
+            }
             viewMeta.put(name, properties.keySet().stream().collect(Collectors.toMap(path -> PathElement.full(
                 "$",
                 ".",
@@ -165,6 +262,13 @@ enum PostgresSqlEmitter {
         }
     };
 
+    private static final Set<String> IMMUTABLE_CASTS = Set.of(
+        "SMALLINT", "INTEGER", "INT", "BIGINT",
+        "DECIMAL", "NUMERIC", "REAL", "DOUBLE PRECISION",
+        "BOOLEAN",
+        "TEXT", "VARCHAR", "CHARACTER VARYING", "CHAR", "CHARACTER"
+    );
+
     private final String payloadType, valueVariable;
 
     private final int roots;
@@ -175,6 +279,104 @@ enum PostgresSqlEmitter {
         this.roots = roots;
     }
 
+    void makeTable(
+        String base,
+        String name,
+        List<String> directColumns,
+        Map<List<PathElement>, Class<?>> properties,
+        Map<List<PathElement>, String> columns,
+        String shredding,
+        Function<String, String> source,
+        boolean latestOnly,
+        List<String> ddl,
+        Map<String, String> objects,
+        Function<Class<?>, String> typeResolver
+    ) {
+        ddl.add("CREATE TABLE " + name + "_TAB ("
+            + ID + " VARCHAR(250) NOT NULL, "
+            + REVISION + " BIGINT NOT NULL, "
+            + ORDINAL + " BIGINT NOT NULL, "
+            + properties.entrySet().stream()
+            .map(entry -> columns.get(entry.getKey()) + " " + typeResolver.apply(entry.getValue()) + ", ")
+            .collect(Collectors.joining())
+            + "CONSTRAINT " + name + "_TPK PRIMARY KEY (" + ID + ", " + REVISION + ", " + ORDINAL + "))");
+        objects.put(name + "_TAB", "TABLE");
+        int index = 0;
+        for (String column : properties.keySet().stream().map(columns::get).sorted().collect(Collectors.toList())) {
+            ddl.add("CREATE INDEX " + name + "_IDX" + (index++) + " "
+                + "ON " + name + "_TAB "
+                + "(" + column + ")");
+        }
+        String insert = "INSERT INTO " + name + "_TAB "
+            + "(" + Stream.concat(
+                Stream.of(ID, REVISION, ORDINAL),
+                properties.keySet().stream().map(columns::get)
+            ).collect(Collectors.joining(", ")) + ") ";
+        if (latestOnly) {
+            ddl.add("CREATE FUNCTION " + name + "_RFS() "
+                + "RETURNS TRIGGER LANGUAGE plpgsql "
+                + "AS $$ "
+                + "BEGIN "
+                + Stream.of("OLD", "NEW").map(row -> "IF TG_OP <> '" + (row.equals("OLD") ? "INSERT" : "DELETE") + "' THEN "
+                    + "PERFORM PG_ADVISORY_XACT_LOCK(HASHTEXT('" + base + "_RAW'), HASHTEXT(" + row + "." + ID + ")); "
+                    + "IF NOT EXISTS ("
+                    + "SELECT 1 FROM " + base + "_RAW "
+                    + "WHERE " + ID + " = " + row + "." + ID + " "
+                    + "AND " + REVISION + " > " + row + "." + REVISION
+                    + ") THEN "
+                    + "DELETE FROM " + name + "_TAB "
+                    + "WHERE " + ID + " = " + row + "." + ID + "; "
+                    + insert
+                    + "SELECT SOURCE." + ID + ", SOURCE." + REVISION + ", " + shredding + " "
+                    + "FROM " + base + "_RAW SOURCE, " + source.apply("SOURCE." + PAYLOAD) + " "
+                    + "WHERE SOURCE." + ID + " = " + row + "." + ID + " "
+                    + "AND NOT SOURCE." + DELETED + " "
+                    + "AND SOURCE." + REVISION + " = ("
+                    + "SELECT MAX(" + REVISION + ") FROM " + base + "_RAW WHERE " + ID + " = " + row + "." + ID
+                    + "); "
+                    + "END IF; "
+                    + "END IF; ").collect(Collectors.joining())
+                + "RETURN NULL; "
+                + "END $$;");
+        } else {
+            ddl.add("CREATE FUNCTION " + name + "_RFS() "
+                + "RETURNS TRIGGER LANGUAGE plpgsql "
+                + "AS $$ "
+                + "BEGIN "
+                + "IF TG_OP <> 'INSERT' THEN "
+                + "DELETE FROM " + name + "_TAB "
+                + "WHERE " + ID + " = OLD." + ID + " AND " + REVISION + " = OLD." + REVISION + "; "
+                + "END IF; "
+                + "IF TG_OP <> 'DELETE' THEN "
+                + insert
+                + "SELECT NEW." + ID + ", NEW." + REVISION + ", " + shredding + " "
+                + "FROM " + source.apply("NEW." + PAYLOAD) + "; "
+                + "END IF; "
+                + "RETURN NULL; "
+                + "END $$;");
+        }
+        objects.put(name + "_RFS", "FUNCTION");
+        ddl.add("CREATE VIEW " + name + " AS "
+            + "SELECT " + Stream.of(
+                directColumns.stream(),
+                Stream.of(ORDINAL),
+                properties.keySet().stream().map(columns::get)
+            ).flatMap(Function.identity()).collect(Collectors.joining(", ")) + " "
+            + "FROM " + base + "_RAW "
+            + "JOIN " + name + "_TAB USING (" + ID + ", " + REVISION + ")");
+        objects.put(name, "VIEW");
+        ddl.add("CREATE TRIGGER " + name + "_TRG "
+            + "AFTER UPDATE OR INSERT OR DELETE "
+            + "ON " + base + "_RAW "
+            + "FOR EACH ROW "
+            + "EXECUTE PROCEDURE " + name + "_RFS()");
+        objects.put(name + "_TRG ON " + base + "_RAW", "TRIGGER");
+    }
+
+    private static String latest(String base) {
+        return "(" + ID + ", " + REVISION + ") IN (SELECT " + ID + ", " + REVISION + " FROM " + base + "_NOW)";
+    }
+
     String getPayloadType() {
         return payloadType;
     }
@@ -197,6 +399,9 @@ enum PostgresSqlEmitter {
         List<String> ddl,
         Map<String, Map<String, String>> viewMeta,
         Map<String, String> objects,
+        PostgresMaintenance maintenance,
+        boolean expressionIndices,
+        boolean latestOnly,
         Function<Set<String>, Map<String, String>> namespaceResolver,
         Function<Class<?>, String> typeResolver
     );
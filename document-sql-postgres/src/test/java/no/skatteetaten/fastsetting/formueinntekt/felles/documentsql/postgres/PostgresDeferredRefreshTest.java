@@ -0,0 +1,163 @@
+package no.skatteetaten.fastsetting.formueinntekt.felles.documentsql.postgres;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.stream.Collectors;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.dataformat.xml.XmlMapper;
+import com.zaxxer.hikari.HikariConfig;
+import com.zaxxer.hikari.HikariDataSource;
+import no.skatteetaten.fastsetting.formueinntekt.felles.documentsql.api.JaxbHandler;
+import no.skatteetaten.fastsetting.formueinntekt.felles.documentsql.api.JaxbPathResolver;
+import no.skatteetaten.fastsetting.formueinntekt.felles.documentsql.api.JdbcDispatcher;
+import no.skatteetaten.fastsetting.formueinntekt.felles.documentsql.api.RefreshScheduler;
+import no.skatteetaten.fastsetting.formueinntekt.felles.documentsql.api.SimpleViewResolver;
+import no.skatteetaten.fastsetting.formueinntekt.felles.documentsql.postgres.sample.SimpleSample;
+import no.skatteetaten.fastsetting.formueinntekt.felles.documentsql.postgres.sample.ViewSample;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+import org.testcontainers.containers.JdbcDatabaseContainer;
+import org.testcontainers.containers.PostgreSQLContainer;
+
+@Category(PostgreSQLContainer.class)
+public class PostgresDeferredRefreshTest {
+
+    private final XmlMapper mapper = XmlMapper.builder()
+        .defaultUseWrapper(false)
+        .build();
+
+    @Rule
+    public JdbcDatabaseContainer<?> postgres = new PostgreSQLContainer<>("postgres:12");
+
+    private HikariDataSource dataSource;
+
+    private JdbcDispatcher<String> dispatcher;
+
+    @Before
+    public void setUp() throws SQLException {
+        mapper.disable(SerializationFeature.FAIL_ON_EMPTY_BEANS);
+        HikariConfig hikariConfig = new HikariConfig();
+        hikariConfig.setJdbcUrl(postgres.getJdbcUrl());
+        hikariConfig.setUsername(postgres.getUsername());
+        hikariConfig.setPassword(postgres.getPassword());
+        dataSource = new HikariDataSource(hikariConfig);
+        dispatcher = JdbcDispatcher.of(PostgresDispatcherFactory.ofXml().withMaintenance(PostgresMaintenance.DEFERRED))
+            .withViewResolver(new SimpleViewResolver(new JaxbPathResolver(JaxbHandler.ofJakarta())))
+            .build("bar", ViewSample.class, "sample");
+        dispatcher.create(dataSource);
+    }
+
+    @After
+    public void tearDown() throws SQLException {
+        dispatcher.drop(dataSource);
+        dataSource.close();
+    }
+
+    @Test
+    public void deferred_refresh() throws SQLException, JsonProcessingException {
+        assertThat(dispatcher.getStaleness(dataSource)).isEmpty();
+
+        insert("X", "foo", "bar");
+
+        assertThat(count()).isEqualTo(0);
+        assertThat(dispatcher.getStaleness(dataSource)).isPresent();
+
+        dispatcher.refresh(dataSource);
+
+        assertThat(count()).isEqualTo(2);
+        assertThat(dispatcher.getStaleness(dataSource)).isEmpty();
+
+        try (Connection conn = dataSource.getConnection(); Statement stmt = conn.createStatement()) {
+            stmt.executeUpdate("DELETE FROM BAR_RAW WHERE ID = 'X'");
+        }
+        dispatcher.refresh(dataSource);
+
+        assertThat(count()).isEqualTo(0);
+    }
+
+    @Test
+    public void deferred_refresh_keeps_oldest_mark() throws SQLException, JsonProcessingException {
+        insert("X", "foo");
+        Duration staleness = dispatcher.getStaleness(dataSource).orElseThrow(AssertionError::new);
+        insert("Y", "bar");
+        insert("Z", "qux");
+
+        assertThat(marks()).isEqualTo(1);
+        assertThat(dispatcher.getStaleness(dataSource)).hasValueSatisfying(value -> assertThat(value).isGreaterThanOrEqualTo(staleness));
+
+        dispatcher.refresh(dataSource);
+
+        assertThat(marks()).isEqualTo(0);
+    }
+
+    @Test
+    public void deferred_refresh_scheduler() throws SQLException, JsonProcessingException {
+        RefreshScheduler scheduler = new RefreshScheduler(dataSource, Duration.ofHours(1), dispatcher);
+
+        scheduler.run();
+        assertThat(scheduler.getRefreshes()).isEqualTo(0);
+        assertThat(scheduler.getStaleness()).isEqualTo(Duration.ZERO);
+
+        insert("X", "foo", "bar");
+
+        scheduler.run();
+        assertThat(scheduler.getRefreshes()).isEqualTo(0);
+        assertThat(scheduler.getStaleness()).isPositive();
+        assertThat(count()).isEqualTo(0);
+
+        RefreshScheduler eager = new RefreshScheduler(dataSource, Duration.ZERO, Collections.singleton(dispatcher), exception -> {
+            throw new AssertionError(exception);
+        });
+
+        eager.run();
+        assertThat(eager.getRefreshes()).isEqualTo(1);
+        assertThat(eager.getStaleness()).isEqualTo(Duration.ZERO);
+        assertThat(count()).isEqualTo(2);
+    }
+
+    private void insert(String id, String... values) throws SQLException, JsonProcessingException {
+        ViewSample example = new ViewSample();
+        example.setList(Arrays.stream(values).map(value -> {
+            SimpleSample sample = new SimpleSample();
+            sample.setVal(value);
+            return sample;
+        }).collect(Collectors.toList()));
+        try (Connection conn = dataSource.getConnection()) {
+            dispatcher.insert(conn, id, 1, mapper.writeValueAsString(example));
+        }
+    }
+
+    private int marks() throws SQLException {
+        try (
+            Connection conn = dataSource.getConnection();
+            Statement stmt = conn.createStatement();
+            ResultSet rs = stmt.executeQuery("SELECT COUNT(*) FROM BAR_DRT")
+        ) {
+            assertThat(rs.next()).isTrue();
+            return rs.getInt(1);
+        }
+    }
+
+    private int count() throws SQLException {
+        try (
+            Connection conn = dataSource.getConnection();
+            Statement stmt = conn.createStatement();
+            ResultSet rs = stmt.executeQuery("SELECT COUNT(*) FROM BAR_LIST")
+        ) {
+            assertThat(rs.next()).isTrue();
+            return rs.getInt(1);
+        }
+    }
+}
@@ -0,0 +1,98 @@
+package no.skatteetaten.fastsetting.formueinntekt.felles.documentsql.postgres;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.zaxxer.hikari.HikariConfig;
+import com.zaxxer.hikari.HikariDataSource;
+import no.skatteetaten.fastsetting.formueinntekt.felles.documentsql.api.JacksonJsonPathResolver;
+import no.skatteetaten.fastsetting.formueinntekt.felles.documentsql.api.JdbcDispatcher;
+import no.skatteetaten.fastsetting.formueinntekt.felles.documentsql.api.SimpleViewResolver;
+import no.skatteetaten.fastsetting.formueinntekt.felles.documentsql.postgres.sample.NumericSample;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+import org.testcontainers.containers.JdbcDatabaseContainer;
+import org.testcontainers.containers.PostgreSQLContainer;
+
+@Category(PostgreSQLContainer.class)
+public class PostgresExpressionIndexTest {
+
+    private final ObjectMapper mapper = new ObjectMapper();
+
+    @Rule
+    public JdbcDatabaseContainer<?> postgres = new PostgreSQLContainer<>("postgres:12");
+
+    private HikariDataSource dataSource;
+
+    @Before
+    public void setUp() {
+        HikariConfig hikariConfig = new HikariConfig();
+        hikariConfig.setJdbcUrl(postgres.getJdbcUrl());
+        hikariConfig.setUsername(postgres.getUsername());
+        hikariConfig.setPassword(postgres.getPassword());
+        dataSource = new HikariDataSource(hikariConfig);
+    }
+
+    @After
+    public void tearDown() {
+        dataSource.close();
+    }
+
+    @Test
+    public void expression_index_on_root_view() throws SQLException, JsonProcessingException {
+        JdbcDispatcher<String> dispatcher = JdbcDispatcher.of(PostgresDispatcherFactory.ofJson().withExpressionIndices(true))
+            .withViewResolver(new SimpleViewResolver(new JacksonJsonPathResolver()))
+            .build("bar", NumericSample.class);
+
+        dispatcher.create(dataSource);
+
+        try (Connection conn = dataSource.getConnection()) {
+            for (int index = 0; index < 10; index++) {
+                NumericSample example = new NumericSample();
+                example.setVal(index);
+                dispatcher.insert(conn, "X" + index, 1, mapper.writeValueAsString(example));
+            }
+        }
+
+        assertThat(explain("SELECT ID FROM BAR WHERE VAL = 5")).contains("BAR_IDX0");
+        assertThat(explain("SELECT ID FROM BAR WHERE VAL > 5")).contains("BAR_IDX0");
+
+        try (
+            Connection conn = dataSource.getConnection();
+            Statement stmt = conn.createStatement();
+            ResultSet rs = stmt.executeQuery("SELECT ID FROM BAR WHERE VAL = 5")
+        ) {
+            assertThat(rs.next()).isTrue();
+            assertThat(rs.getString(1)).isEqualTo("X5");
+            assertThat(rs.next()).isFalse();
+        }
+
+        dispatcher.drop(dataSource);
+    }
+
+    private String explain(String query) throws SQLException {
+        List<String> plan = new ArrayList<>();
+        try (Connection conn = dataSource.getConnection(); Statement stmt = conn.createStatement()) {
+            stmt.execute("SET enable_seqscan = off");
+            try (ResultSet rs = stmt.executeQuery("EXPLAIN " + query)) {
+                while (rs.next()) {
+                    plan.add(rs.getString(1));
+                }
+            } finally {
+                stmt.execute("RESET enable_seqscan");
+            }
+        }
+        return String.join("\n", plan).toUpperCase();
+    }
+}
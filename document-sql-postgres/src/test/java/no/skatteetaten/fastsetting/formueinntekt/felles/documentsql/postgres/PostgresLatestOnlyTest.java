@@ -0,0 +1,190 @@
+package no.skatteetaten.fastsetting.formueinntekt.felles.documentsql.postgres;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.Assume.assumeFalse;
+
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.xml.XmlMapper;
+import com.zaxxer.hikari.HikariConfig;
+import com.zaxxer.hikari.HikariDataSource;
+import no.skatteetaten.fastsetting.formueinntekt.felles.documentsql.api.JacksonJsonPathResolver;
+import no.skatteetaten.fastsetting.formueinntekt.felles.documentsql.api.JaxbHandler;
+import no.skatteetaten.fastsetting.formueinntekt.felles.documentsql.api.JaxbPathResolver;
+import no.skatteetaten.fastsetting.formueinntekt.felles.documentsql.api.JdbcDispatcher;
+import no.skatteetaten.fastsetting.formueinntekt.felles.documentsql.api.SimpleViewResolver;
+import no.skatteetaten.fastsetting.formueinntekt.felles.documentsql.postgres.sample.SimpleSample;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+import org.junit.runner.RunWith;
+import org.junit.runners.Parameterized;
+import org.testcontainers.containers.JdbcDatabaseContainer;
+import org.testcontainers.containers.PostgreSQLContainer;
+
+@RunWith(Parameterized.class)
+@Category(PostgreSQLContainer.class)
+public class PostgresLatestOnlyTest {
+
+    private final String name;
+
+    private final ObjectMapper mapper;
+
+    private final JdbcDispatcher<String> dispatcher;
+
+    @Parameterized.Parameters(name = "{0}")
+    public static Collection<Object[]> data() {
+        return Arrays.asList(new Object[][] {
+            {"XML", new XmlMapper(), xml(PostgresDispatcherFactory.ofXml())},
+            {"XML (incremental)", new XmlMapper(), xml(PostgresDispatcherFactory.ofXml().withMaintenance(PostgresMaintenance.INCREMENTAL))},
+            {"XML (deferred)", new XmlMapper(), xml(PostgresDispatcherFactory.ofXml().withMaintenance(PostgresMaintenance.DEFERRED))},
+            {"JSON", new ObjectMapper(), json(PostgresDispatcherFactory.ofJson())},
+            {"JSON (incremental)", new ObjectMapper(), json(PostgresDispatcherFactory.ofJson().withMaintenance(PostgresMaintenance.INCREMENTAL))},
+            {"JSON (indexed)", new ObjectMapper(), json(PostgresDispatcherFactory.ofJson().withExpressionIndices(true))},
+            {"JSON (current)", new ObjectMapper(), json(PostgresDispatcherFactory.ofJson().withCurrentTable(true))}
+        });
+    }
+
+    private static JdbcDispatcher<String> xml(PostgresDispatcherFactory factory) {
+        return JdbcDispatcher.of(factory.withLatestOnly(true))
+            .withViewResolver(new SimpleViewResolver(new JaxbPathResolver(JaxbHandler.ofJakarta())))
+            .build("bar", SimpleSample.class, "sample");
+    }
+
+    private static JdbcDispatcher<String> json(PostgresDispatcherFactory factory) {
+        return JdbcDispatcher.of(factory.withLatestOnly(true))
+            .withViewResolver(new SimpleViewResolver(new JacksonJsonPathResolver()))
+            .build("bar", SimpleSample.class);
+    }
+
+    public PostgresLatestOnlyTest(String name, ObjectMapper mapper, JdbcDispatcher<String> dispatcher) {
+        this.name = name;
+        this.mapper = mapper;
+        this.dispatcher = dispatcher;
+    }
+
+    @Rule
+    public JdbcDatabaseContainer<?> postgres = new PostgreSQLContainer<>("postgres:12");
+
+    private HikariDataSource dataSource;
+
+    @Before
+    public void setUp() throws SQLException {
+        HikariConfig hikariConfig = new HikariConfig();
+        hikariConfig.setJdbcUrl(postgres.getJdbcUrl());
+        hikariConfig.setUsername(postgres.getUsername());
+        hikariConfig.setPassword(postgres.getPassword());
+        dataSource = new HikariDataSource(hikariConfig);
+        dispatcher.create(dataSource);
+    }
+
+    @After
+    public void tearDown() throws SQLException {
+        dispatcher.drop(dataSource);
+        dataSource.close();
+    }
+
+    @Test
+    public void latest_revision_only() throws SQLException, JsonProcessingException {
+        try (Connection conn = dataSource.getConnection()) {
+            dispatcher.insert(conn, "X", 1, false, payload("foo"));
+            dispatcher.insert(conn, "X", 2, false, payload("bar"));
+            dispatcher.insert(conn, "Y", 1, false, payload("foo"));
+            dispatcher.insert(conn, "Y", 2, true, payload("bar"));
+            dispatcher.insert(conn, "Z", 2, false, payload("bar"));
+            dispatcher.insert(conn, "Z", 1, false, payload("foo"));
+        }
+        dispatcher.refresh(dataSource);
+
+        assertThat(rows("BAR")).containsExactly("X2bar", "Z2bar");
+        assertThat(rows("BAR_RAW")).hasSize(6);
+
+        try (Connection conn = dataSource.getConnection(); Statement stmt = conn.createStatement()) {
+            stmt.executeUpdate("DELETE FROM BAR_RAW WHERE ID = 'X' AND REVISION = 2");
+        }
+        dispatcher.refresh(dataSource);
+
+        assertThat(rows("BAR")).containsExactly("X1foo", "Z2bar");
+    }
+
+    @Test
+    public void latest_revision_only_concurrently() throws Exception {
+        assumeFalse("Materialized view is refreshed with the snapshot of the triggering statement", name.equals("XML"));
+        String payload = payload("foo");
+        CyclicBarrier barrier = new CyclicBarrier(2);
+        ExecutorService executorService = Executors.newFixedThreadPool(2);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int writer = 1; writer <= 2; writer++) {
+                int offset = writer;
+                futures.add(executorService.submit(() -> {
+                    for (int index = 0; index < 10; index++) {
+                        barrier.await();
+                        dispatcher.insert(dataSource, "X", 2 * index + offset, payload);
+                    }
+                    return null;
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            executorService.shutdownNow();
+        }
+        dispatcher.refresh(dataSource);
+
+        assertThat(rows("BAR")).containsExactly("X20foo");
+    }
+
+    @Test
+    public void latest_revision_only_ignores_previous_revisions() throws SQLException, JsonProcessingException {
+        try (Connection conn = dataSource.getConnection()) {
+            dispatcher.insert(conn, "X", 1, false, payload("foo"));
+            dispatcher.insert(conn, "X", 2, false, payload("bar"));
+        }
+        dispatcher.refresh(dataSource);
+
+        try (Connection conn = dataSource.getConnection(); Statement stmt = conn.createStatement()) {
+            stmt.executeUpdate("UPDATE BAR_RAW SET PAYLOAD = '" + payload("qux") + "' WHERE ID = 'X' AND REVISION = 1");
+            stmt.executeUpdate("DELETE FROM BAR_RAW WHERE ID = 'X' AND REVISION = 1");
+        }
+        dispatcher.refresh(dataSource);
+
+        assertThat(rows("BAR")).containsExactly("X2bar");
+    }
+
+    private String payload(String value) throws JsonProcessingException {
+        SimpleSample sample = new SimpleSample();
+        sample.setVal(value);
+        return mapper.writeValueAsString(sample);
+    }
+
+    private List<String> rows(String view) throws SQLException {
+        List<String> rows = new ArrayList<>();
+        try (
+            Connection conn = dataSource.getConnection();
+            Statement stmt = conn.createStatement();
+            ResultSet rs = stmt.executeQuery("SELECT ID, REVISION" + (view.endsWith("_RAW") ? "" : ", VAL") + " FROM " + view + " ORDER BY ID, REVISION")
+        ) {
+            while (rs.next()) {
+                rows.add(rs.getString(1) + rs.getLong(2) + (view.endsWith("_RAW") ? "" : rs.getString(3)));
+            }
+        }
+        return rows;
+    }
+}
@@ -0,0 +1,233 @@
+package no.skatteetaten.fastsetting.formueinntekt.felles.documentsql.postgres;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.AbstractMap;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.xml.XmlMapper;
+import com.zaxxer.hikari.HikariConfig;
+import com.zaxxer.hikari.HikariDataSource;
+import no.skatteetaten.fastsetting.formueinntekt.felles.documentsql.api.JacksonJsonPathResolver;
+import no.skatteetaten.fastsetting.formueinntekt.felles.documentsql.api.JaxbHandler;
+import no.skatteetaten.fastsetting.formueinntekt.felles.documentsql.api.JaxbPathResolver;
+import no.skatteetaten.fastsetting.formueinntekt.felles.documentsql.api.JdbcDispatcher;
+import no.skatteetaten.fastsetting.formueinntekt.felles.documentsql.api.RevisionedId;
+import no.skatteetaten.fastsetting.formueinntekt.felles.documentsql.api.SimpleViewResolver;
+import no.skatteetaten.fastsetting.formueinntekt.felles.documentsql.api.TableResolver;
+import no.skatteetaten.fastsetting.formueinntekt.felles.documentsql.postgres.sample.SimpleSample;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+import org.testcontainers.containers.JdbcDatabaseContainer;
+import org.testcontainers.containers.PostgreSQLContainer;
+
+@Category(PostgreSQLContainer.class)
+public class PostgresPartitioningTest {
+
+    @Rule
+    public JdbcDatabaseContainer<?> postgres = new PostgreSQLContainer<>("postgres:12");
+
+    private HikariDataSource dataSource;
+
+    @Before
+    public void setUp() {
+        HikariConfig hikariConfig = new HikariConfig();
+        hikariConfig.setJdbcUrl(postgres.getJdbcUrl());
+        hikariConfig.setUsername(postgres.getUsername());
+        hikariConfig.setPassword(postgres.getPassword());
+        dataSource = new HikariDataSource(hikariConfig);
+    }
+
+    @After
+    public void tearDown() {
+        dataSource.close();
+    }
+
+    @Test
+    public void partition_by_revision() throws SQLException, JsonProcessingException {
+        JdbcDispatcher<String> dispatcher = JdbcDispatcher.of(PostgresDispatcherFactory.ofJson()
+                .withPartitioning("REVISION")
+                .withCurrentTable(true))
+            .withViewResolver(new SimpleViewResolver(new JacksonJsonPathResolver()))
+            .build("bar", SimpleSample.class);
+
+        dispatcher.create(dataSource);
+        dispatcher.addPartition(dataSource, "R1", "1", "2");
+        dispatcher.addPartition(dataSource, "R2", "2", "3");
+
+        ObjectMapper mapper = new ObjectMapper();
+        SimpleSample sample = new SimpleSample();
+        sample.setVal("foo");
+        try (Connection conn = dataSource.getConnection()) {
+            dispatcher.insert(conn, "X", 1, mapper.writeValueAsString(sample));
+            dispatcher.insert(conn, "X", 2, mapper.writeValueAsString(sample));
+            dispatcher.insert(conn, "Y", 1, mapper.writeValueAsString(sample));
+            dispatcher.insert(conn, "Y", 3, mapper.writeValueAsString(sample));
+        }
+
+        dispatcher.dropPartition(dataSource, "R1");
+
+        assertThat(rows("SELECT ID, REVISION FROM BAR_RAW")).containsExactly("X2", "Y3");
+        assertThat(rows("SELECT ID, REVISION FROM BAR_MIN")).containsExactly("X2", "Y3");
+
+        dispatcher.detachPartition(dataSource, "R2");
+
+        assertThat(rows("SELECT ID, REVISION FROM BAR")).containsExactly("Y3");
+        assertThat(rows("SELECT ID, REVISION FROM BAR_NOW")).containsExactly("Y3");
+        assertThat(rows("SELECT ID, REVISION FROM BAR_RAW_R2")).containsExactly("X2");
+
+        assertThatThrownBy(() -> dispatcher.dropPartition(dataSource, "R2; DROP TABLE BAR_RAW")).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> dispatcher.addPartition(dataSource, "R3", "3", "4); DROP TABLE BAR_RAW; --")).isInstanceOf(IllegalArgumentException.class);
+
+        try (Connection conn = dataSource.getConnection(); Statement stmt = conn.createStatement()) {
+            stmt.execute("DROP TABLE BAR_RAW_R2");
+        }
+        dispatcher.drop(dataSource);
+    }
+
+    @Test
+    public void partition_by_revision_from_minimum() throws SQLException, JsonProcessingException {
+        JdbcDispatcher<String> dispatcher = JdbcDispatcher.of(PostgresDispatcherFactory.ofJson().withPartitioning("REVISION"))
+            .withViewResolver(new SimpleViewResolver(new JacksonJsonPathResolver()))
+            .build("bar", SimpleSample.class);
+
+        dispatcher.create(dataSource);
+        dispatcher.addPartition(dataSource, "R1", null, "2");
+
+        ObjectMapper mapper = new ObjectMapper();
+        SimpleSample sample = new SimpleSample();
+        sample.setVal("foo");
+        try (Connection conn = dataSource.getConnection()) {
+            dispatcher.insert(conn, "X", 1, mapper.writeValueAsString(sample));
+            dispatcher.insert(conn, "X", 2, mapper.writeValueAsString(sample));
+        }
+
+        dispatcher.dropPartition(dataSource, "R1");
+
+        assertThat(rows("SELECT ID, REVISION FROM BAR_RAW")).containsExactly("X2");
+
+        dispatcher.drop(dataSource);
+    }
+
+    @Test
+    public void partition_by_revision_latest_only() throws SQLException, JsonProcessingException {
+        JdbcDispatcher<String> dispatcher = JdbcDispatcher.of(PostgresDispatcherFactory.ofJson()
+                .withPartitioning("REVISION")
+                .withMaintenance(PostgresMaintenance.INCREMENTAL)
+                .withCurrentTable(true)
+                .withLatestOnly(true))
+            .withViewResolver(new SimpleViewResolver(new JacksonJsonPathResolver()))
+            .build("bar", SimpleSample.class);
+
+        dispatcher.create(dataSource);
+        dispatcher.addPartition(dataSource, "R1", null, "2");
+        dispatcher.addPartition(dataSource, "R2", "2", "3");
+
+        ObjectMapper mapper = new ObjectMapper();
+        SimpleSample sample = new SimpleSample();
+        sample.setVal("foo");
+        try (Connection conn = dataSource.getConnection()) {
+            dispatcher.insert(conn, "X", 1, mapper.writeValueAsString(sample));
+            dispatcher.insert(conn, "X", 2, mapper.writeValueAsString(sample));
+            dispatcher.insert(conn, "Y", 1, mapper.writeValueAsString(sample));
+            dispatcher.insert(conn, "Z", 2, mapper.writeValueAsString(sample));
+        }
+
+        assertThat(rows("SELECT ID, REVISION FROM BAR")).containsExactly("X2", "Y1", "Z2");
+
+        dispatcher.dropPartition(dataSource, "R2");
+
+        assertThat(rows("SELECT ID, REVISION FROM BAR")).containsExactly("X1", "Y1");
+        assertThat(rows("SELECT ID, REVISION FROM BAR_MAX")).containsExactly("X1", "Y1");
+
+        dispatcher.drop(dataSource);
+    }
+
+    @Test
+    public void partition_by_additional_column() {
+        assertThatThrownBy(() -> PostgresDispatcherFactory.ofXml().withPartitioning("PERIOD")).isInstanceOf(IllegalStateException.class);
+    }
+
+    @Test
+    public void partition_by_revision_insert_if_absent() throws SQLException, JsonProcessingException {
+        JdbcDispatcher<Map.Entry<Integer, String>> dispatcher = JdbcDispatcher.of(PostgresDispatcherFactory.ofXml()
+                .withPartitioning("REVISION")
+                .withMaintenance(PostgresMaintenance.INCREMENTAL))
+            .withTableResolver(new PeriodTableResolver())
+            .withViewResolver(new SimpleViewResolver(new JaxbPathResolver(JaxbHandler.ofJakarta())))
+            .build("bar", SimpleSample.class, "sample");
+
+        dispatcher.create(dataSource);
+        dispatcher.addPartition(dataSource, "R1", "1", "2");
+
+        XmlMapper mapper = new XmlMapper();
+        SimpleSample sample = new SimpleSample();
+        sample.setVal("foo");
+        try (Connection conn = dataSource.getConnection()) {
+            RevisionedId id = new RevisionedId("X", 1, false);
+            assertThat(dispatcher.insertIfAbsent(conn, id, new AbstractMap.SimpleEntry<>(2020, mapper.writeValueAsString(sample)))).isTrue();
+            assertThat(dispatcher.insertIfAbsent(conn, id, new AbstractMap.SimpleEntry<>(2020, mapper.writeValueAsString(sample)))).isFalse();
+            assertThat(dispatcher.insertIfAbsent(conn, id, new AbstractMap.SimpleEntry<>(2021, mapper.writeValueAsString(sample)))).isFalse();
+        }
+
+        assertThat(rows("SELECT ID, PERIOD FROM BAR")).containsExactly("X2020");
+        assertThat(rows("SELECT ID, REVISION FROM BAR_TAB")).containsExactly("X1");
+
+        dispatcher.drop(dataSource);
+    }
+
+    @Test
+    public void unpartitioned_dispatcher() {
+        JdbcDispatcher<String> dispatcher = JdbcDispatcher.of(PostgresDispatcherFactory.ofJson())
+            .withViewResolver(new SimpleViewResolver(new JacksonJsonPathResolver()))
+            .build("bar", SimpleSample.class);
+
+        assertThatThrownBy(() -> dispatcher.dropPartition(dataSource, "R1")).isInstanceOf(IllegalStateException.class);
+    }
+
+    private List<String> rows(String query) throws SQLException {
+        List<String> rows = new ArrayList<>();
+        try (
+            Connection conn = dataSource.getConnection();
+            Statement stmt = conn.createStatement();
+            ResultSet rs = stmt.executeQuery(query + " ORDER BY 1, 2")
+        ) {
+            while (rs.next()) {
+                rows.add(rs.getString(1) + rs.getLong(2));
+            }
+        }
+        return rows;
+    }
+
+    static class PeriodTableResolver implements TableResolver<Map.Entry<Integer, String>> {
+
+        @Override
+        public String toPayload(Map.Entry<Integer, String> value) {
+            return value.getValue();
+        }
+
+        @Override
+        public void registerAdditionalValues(int index, PreparedStatement ps, Map.Entry<Integer, String> value) throws SQLException {
+            ps.setInt(index, value.getKey());
+        }
+
+        @Override
+        public Map<String, String> getAdditionalColumns() {
+            return Collections.singletonMap("PERIOD", "INTEGER");
+        }
+    }
+}